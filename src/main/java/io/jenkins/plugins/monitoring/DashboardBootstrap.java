@@ -0,0 +1,163 @@
+package io.jenkins.plugins.monitoring;
+
+import hudson.model.Run;
+import io.jenkins.plugins.monitoring.util.PortletCatalog;
+import io.jenkins.plugins.monitoring.util.PortletUtils;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The view model of the dashboard of a {@link MonitoringDefaultAction}. All values are resolved once when
+ * the bootstrap is created, so the page and the dashboard script share the same state without further
+ * round trips. Creating the bootstrap also stores the default configuration of the run for the user, which
+ * is compared with the user's configuration to detect, if the dashboard is synced. The default configuration
+ * is not stored, if it is derived from an incomplete catalog.
+ *
+ * @author Simon Symhoven
+ */
+public class DashboardBootstrap {
+    private final Run<?, ?> run;
+    private final PortletCatalog catalog;
+    private final String configuration;
+    private final String defaultConfiguration;
+    private final long version;
+    private final boolean synced;
+    private final List<MonitorPortlet> activePortlets;
+    private final List<String> unavailablePortlets;
+
+    /**
+     * Creates a new instance of {@link DashboardBootstrap} for the current user.
+     *
+     * @param action
+     *          the action of the dashboard.
+     */
+    DashboardBootstrap(final MonitoringDefaultAction action) {
+        this.run = action.getRun();
+        MonitoringCustomAction customAction = run.getAction(MonitoringCustomAction.class);
+        MonitorConfigurationProperty property = MonitorConfigurationProperty.forCurrentUser().orElse(null);
+
+        this.catalog = PortletUtils.getPortletCatalog(run);
+        this.defaultConfiguration = customAction == null
+                ? PortletUtils.getDefaultPortletsAsConfiguration(catalog) : customAction.getPortlets();
+
+        if (property != null && (customAction != null || catalog.isComplete())) {
+            property.createOrUpdateConfiguration(MonitorConfigurationProperty.DEFAULT_ID, defaultConfiguration);
+        }
+
+        MonitorConfigurationProperty.MonitorConfiguration userConfiguration = property == null
+                ? null : property.getConfiguration(action.getConfigurationId());
+
+        this.configuration = userConfiguration == null ? defaultConfiguration : userConfiguration.getConfig();
+        this.version = property == null ? 0 : property.getVersion(action.getConfigurationId());
+        this.synced = action.isSynced();
+
+        Map<String, MonitorPortlet> active = new LinkedHashMap<>();
+        List<String> unavailable = new ArrayList<>();
+
+        for (Object o : new JSONArray(configuration)) {
+            String id = ((JSONObject) o).getString("id");
+
+            if (active.containsKey(id) || unavailable.contains(id)) {
+                continue;
+            }
+
+            MonitorPortlet portlet = catalog.findPortlet(id).orElse(null);
+
+            if (portlet == null) {
+                unavailable.add(id);
+            }
+            else {
+                active.put(id, portlet);
+            }
+        }
+
+        this.activePortlets = new ArrayList<>(active.values());
+        this.unavailablePortlets = unavailable;
+    }
+
+    public PortletCatalog getCatalog() {
+        return catalog;
+    }
+
+    public String getConfiguration() {
+        return configuration;
+    }
+
+    public String getDefaultConfiguration() {
+        return defaultConfiguration;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean isSynced() {
+        return synced;
+    }
+
+    public List<MonitorPortlet> getActivePortlets() {
+        return activePortlets;
+    }
+
+    public List<String> getUnavailablePortlets() {
+        return unavailablePortlets;
+    }
+
+    public List<String> getFailedFactories() {
+        return catalog.getFailedFactories();
+    }
+
+    /**
+     * Creates the json document for the dashboard script. Besides the configuration state (see
+     * {@link MonitoringDefaultAction#getConfigurationState()}), it contains the default configuration, the
+     * unavailable portlets, the failed factories and the live state, see
+     * {@link MonitoringDefaultAction#getLiveState()}. The catalog of the available portlets is rendered into the
+     * page by the view itself.
+     *
+     * @return
+     *          the bootstrap as json object string.
+     */
+    public String toJson() {
+        return new JSONObject()
+                .put("version", version)
+                .put("synced", synced)
+                .put("conflict", false)
+                .put("config", new JSONArray(configuration))
+                .put("defaultConfig", new JSONArray(defaultConfiguration))
+                .put("unavailable", new JSONArray(unavailablePortlets))
+                .put("failedFactories", new JSONArray(getFailedFactories()))
+                .put("live", createLiveState(run, catalog))
+                .toString();
+    }
+
+    /**
+     * Creates the live state of a run: whether the run is still building and the data versions of all available
+     * portlets, see {@link MonitorPortlet#getDataVersion()}.
+     *
+     * @param run
+     *          the run of the dashboard.
+     *
+     * @param catalog
+     *          the catalog of the run.
+     *
+     * @return
+     *          the live state as json object: {@code {"building": true, "portlets": {"id": "version"}}}.
+     */
+    static JSONObject createLiveState(final Run<?, ?> run, final PortletCatalog catalog) {
+        JSONObject versions = new JSONObject();
+
+        for (MonitorPortlet portlet : catalog.getPortlets()) {
+            String version = portlet.getDataVersion().orElse(null);
+            versions.put(portlet.getId(), version == null ? JSONObject.NULL : version);
+        }
+
+        return new JSONObject()
+                .put("building", run.isBuilding())
+                .put("portlets", versions);
+    }
+}
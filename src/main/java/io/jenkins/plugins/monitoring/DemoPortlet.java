@@ -49,6 +49,11 @@ public class DemoPortlet extends MonitorPortlet {
         return 200;
     }
 
+    @Override
+    public boolean isCacheable() {
+        return true;
+    }
+
     /**
      * An example of {@link MonitorPortletFactory}.
      */
@@ -6,18 +6,23 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import hudson.Extension;
 import hudson.model.Run;
 import hudson.model.TaskListener;
+import io.jenkins.plugins.monitoring.util.PortletCatalog;
 import io.jenkins.plugins.monitoring.util.PortletUtils;
 import io.jenkins.plugins.monitoring.util.PullRequestUtils;
-import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.everit.json.schema.ValidationException;
 import org.jenkinsci.plugins.workflow.steps.*;
 import org.json.JSONArray;
+import org.json.JSONException;
 import org.json.JSONObject;
 import org.kohsuke.stapler.DataBoundConstructor;
 
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
@@ -81,15 +86,20 @@ public final class Monitor extends Step implements Serializable {
                 return null;
             }
 
-            if (!PortletUtils.isValidConfiguration(monitor.getPortlets())) {
+            JSONArray portlets;
+
+            try {
+                portlets = PortletUtils.parseConfiguration(monitor.getPortlets());
+            }
+            catch (ValidationException | JSONException exception) {
                 log("[Monitor] Portlet Configuration is invalid!");
-                return null;
+                throw exception;
             }
 
-            JSONArray portlets = new JSONArray(monitor.getPortlets());
             log("[Monitor] Portlet Configuration: " + portlets.toString(3));
 
-            List<String> classes = PortletUtils.getAvailablePortlets(run)
+            PortletCatalog catalog = PortletUtils.getPortletCatalog(run);
+            List<String> classes = catalog.getPortlets()
                     .stream()
                     .map(MonitorPortlet::getId)
                     .collect(Collectors.toList());
@@ -97,37 +107,24 @@ public final class Monitor extends Step implements Serializable {
             log("[Monitor] Available portlets: ["
                             + StringUtils.join(classes, ", ") + "]");
 
-            List<String> usedPortlets = new ArrayList<>();
+            List<String> duplicatePortletIds = new ArrayList<>();
+            List<String> missedPortletIds = new ArrayList<>();
+            JSONArray cleanedPortlets = prunePortlets(portlets, classes, duplicatePortletIds, missedPortletIds);
 
-            for (Object o : portlets) {
-                if (o instanceof JSONObject) {
-                    JSONObject portlet = (JSONObject) o;
-                    String id = portlet.getString("id");
-
-                    if (usedPortlets.contains(id)) {
-                        log("[Monitor] Portlet with ID '" + id
-                                + "' already defined in list of portlets. Skip adding this portlet!");
-                    }
-                    else {
-                        usedPortlets.add(id);
-                    }
-                }
+            for (String id : duplicatePortletIds) {
+                log("[Monitor] Portlet with ID '" + id
+                        + "' already defined in list of portlets. Skip adding this portlet!");
             }
 
-            List<String> missedPortletIds = new ArrayList<String>(CollectionUtils.removeAll(usedPortlets, classes));
-
-            if (!missedPortletIds.isEmpty()) {
+            if (!missedPortletIds.isEmpty() && !catalog.isComplete()) {
+                log("[Monitor] Can't find the following portlets " + missedPortletIds
+                        + " in list of available portlets, but the portlet factories " + catalog.getFailedFactories()
+                        + " failed or did not respond in time. Keep current configuration.");
+            }
+            else if (!missedPortletIds.isEmpty()) {
                 log("[Monitor] Can't find the following portlets "
                                 + missedPortletIds + " in list of available portlets! Will remove from current configuration.");
 
-                JSONArray cleanedPortlets = new JSONArray();
-                for (Object o : portlets) {
-                    JSONObject portlet = (JSONObject) o;
-                    if (!missedPortletIds.contains(portlet.getString("id"))) {
-                        cleanedPortlets.put(portlet);
-                    }
-                }
-
                 monitor.setPortlets(cleanedPortlets.toString(3));
 
                 log("[Monitor] Cleaned Portlets: " + cleanedPortlets.toString(3));
@@ -145,6 +142,62 @@ public final class Monitor extends Step implements Serializable {
             return null;
         }
 
+        /**
+         * Removes all portlets from the configuration, which are not available.
+         *
+         * @param portlets
+         *              the parsed configuration.
+         *
+         * @param availablePortletIds
+         *              the ids of all available portlets.
+         *
+         * @param duplicatePortletIds
+         *              the list to add the ids to, which are defined more than once.
+         *
+         * @param missedPortletIds
+         *              the list to add the ids to, which are not available.
+         *
+         * @return
+         *              the cleaned configuration or the given one, if all portlets are available.
+         */
+        static JSONArray prunePortlets(final JSONArray portlets, final Collection<String> availablePortletIds,
+                                       final List<String> duplicatePortletIds, final List<String> missedPortletIds) {
+            Set<String> availableIds = new HashSet<>(availablePortletIds);
+            Set<String> usedPortlets = new LinkedHashSet<>();
+
+            for (Object o : portlets) {
+                if (o instanceof JSONObject) {
+                    String id = ((JSONObject) o).getString("id");
+
+                    if (!usedPortlets.add(id)) {
+                        duplicatePortletIds.add(id);
+                    }
+                }
+            }
+
+            for (String id : usedPortlets) {
+                if (!availableIds.contains(id)) {
+                    missedPortletIds.add(id);
+                }
+            }
+
+            if (missedPortletIds.isEmpty()) {
+                return portlets;
+            }
+
+            Set<String> missedIds = new HashSet<>(missedPortletIds);
+            JSONArray cleanedPortlets = new JSONArray();
+
+            for (Object o : portlets) {
+                JSONObject portlet = (JSONObject) o;
+                if (!missedIds.contains(portlet.getString("id"))) {
+                    cleanedPortlets.put(portlet);
+                }
+            }
+
+            return cleanedPortlets;
+        }
+
         private void log(String message) throws IOException, InterruptedException {
             Objects.requireNonNull(getContext().get(TaskListener.class)).getLogger()
                     .println(message);
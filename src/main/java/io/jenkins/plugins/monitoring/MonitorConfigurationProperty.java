@@ -1,19 +1,25 @@
 package io.jenkins.plugins.monitoring;
 
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.Extension;
 import hudson.model.Saveable;
 import hudson.model.User;
 import hudson.model.UserProperty;
 import hudson.model.UserPropertyDescriptor;
+import io.jenkins.plugins.monitoring.util.CanonicalConfiguration;
+import io.jenkins.plugins.monitoring.util.ConfigurationUtils;
+import io.jenkins.plugins.monitoring.util.PortletUtils;
+import io.jenkins.plugins.monitoring.util.SaveScheduler;
+import org.apache.commons.lang3.StringUtils;
+import org.json.JSONArray;
 
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * A {@link UserProperty} to store the json configuration per user as property.
@@ -21,8 +27,22 @@ import java.util.logging.Logger;
  * @author Simon Symhoven
  */
 public class MonitorConfigurationProperty extends UserProperty implements Saveable {
-    private static final Logger LOGGER = Logger.getLogger(MonitorConfigurationProperty.class.getName());
-    private final Collection<MonitorConfiguration> configurations;
+    /**
+     * The configurations as stored by previous versions. Only read to migrate existing user files.
+     *
+     * @deprecated replaced by {@link #configurationsById}.
+     */
+    @Deprecated
+    private Collection<MonitorConfiguration> configurations;
+
+    private ConcurrentMap<String, MonitorConfiguration> configurationsById = new ConcurrentHashMap<>();
+
+    /**
+     * The last version, that has been assigned to a {@link MonitorConfiguration}. Versions are taken from this
+     * counter, so a configuration, that is removed and created again, never gets a version, that a client
+     * may still hold.
+     */
+    private long lastVersion;
 
     /**
      * The id for the default configuration.
@@ -37,11 +57,35 @@ public class MonitorConfigurationProperty extends UserProperty implements Saveab
      */
     public MonitorConfigurationProperty(final List<MonitorConfiguration> configurations) {
         super();
-        this.configurations = configurations;
+        configurations.forEach(configuration -> configurationsById.put(configuration.getId(), configuration));
+        lastVersion = configurations.stream().mapToLong(MonitorConfiguration::getVersion).max().orElse(0);
+    }
+
+    /**
+     * Migrates the configurations of previous versions into the id-keyed map.
+     *
+     * @return
+     *          this property.
+     */
+    @SuppressWarnings("deprecation")
+    private Object readResolve() {
+        if (configurationsById == null) {
+            configurationsById = new ConcurrentHashMap<>();
+        }
+
+        if (configurations != null) {
+            configurations.forEach(configuration -> configurationsById.putIfAbsent(configuration.getId(), configuration));
+            configurations = null;
+        }
+
+        lastVersion = Math.max(lastVersion, configurationsById.values().stream()
+                .mapToLong(MonitorConfiguration::getVersion).max().orElse(0));
+
+        return this;
     }
 
     public Collection<MonitorConfiguration> getConfigurations() {
-        return configurations;
+        return configurationsById.values();
     }
 
     /**
@@ -51,20 +95,32 @@ public class MonitorConfigurationProperty extends UserProperty implements Saveab
      *          the id of the {@link MonitorConfiguration} to get.
      *
      * @return
-     *          the {@link MonitorConfiguration} or default if id does not exist on {@link MonitorConfigurationProperty}.
+     *          the {@link MonitorConfiguration} or default if id does not exist on {@link MonitorConfigurationProperty}
+     *          or null, if neither exists.
      */
+    @CheckForNull
     public MonitorConfiguration getConfiguration(final String id) {
-        return getConfigurations().stream()
-                .filter(monitorConfiguration -> monitorConfiguration.getId().equals(id))
-                .findFirst()
-                .orElse(getConfigurations()
-                        .stream()
-                        .filter(monitorConfiguration -> monitorConfiguration.getId().equals(DEFAULT_ID))
-                        .findFirst().get());
+        MonitorConfiguration configuration = configurationsById.get(id);
+        return configuration == null ? configurationsById.get(DEFAULT_ID) : configuration;
     }
 
     /**
-     * Updates an existing {@link MonitorConfiguration}.
+     * Get the version of a {@link MonitorConfiguration}. The version is incremented on each change.
+     *
+     * @param id
+     *          the id of the {@link MonitorConfiguration}.
+     *
+     * @return
+     *          the version or 0, if id does not exist on {@link MonitorConfigurationProperty}.
+     */
+    public long getVersion(final String id) {
+        MonitorConfiguration configuration = configurationsById.get(id);
+        return configuration == null ? 0 : configuration.getVersion();
+    }
+
+    /**
+     * Creates or updates a {@link MonitorConfiguration} atomically. The config is stored in canonical form and
+     * the user is only saved if the config has changed.
      *
      * @param id
      *          the id of the {@link MonitorConfiguration} to update.
@@ -73,18 +129,114 @@ public class MonitorConfigurationProperty extends UserProperty implements Saveab
      *          the config string to update.
      */
     public void createOrUpdateConfiguration(final String id, final String config) {
-        Optional<MonitorConfiguration> property = getConfigurations().stream()
-                .filter(monitorConfiguration -> monitorConfiguration.getId().equals(id))
-                .findFirst();
+        createOrUpdateConfiguration(new MonitorConfiguration(id, config));
+    }
 
-        if (property.isPresent()) {
-            property.get().setConfig(config);
+    /**
+     * Creates or updates a {@link MonitorConfiguration} atomically with a validated config, that is already in
+     * canonical form, see {@link PortletUtils#validateConfiguration(String)}. The user is only saved if the config
+     * has changed.
+     *
+     * @param id
+     *          the id of the {@link MonitorConfiguration} to update.
+     *
+     * @param config
+     *          the validated config to update.
+     */
+    public void createOrUpdateConfiguration(final String id, final CanonicalConfiguration config) {
+        createOrUpdateConfiguration(new MonitorConfiguration(id, config));
+    }
+
+    private void createOrUpdateConfiguration(final MonitorConfiguration configuration) {
+        String id = configuration.getId();
+
+        while (true) {
+            MonitorConfiguration previous = configurationsById.get(id);
+
+            if (previous != null && StringUtils.equals(previous.getHash(), configuration.getHash())) {
+                return;
+            }
+
+            if (replace(id, previous, configuration.withVersion(nextVersion()))) {
+                save();
+                return;
+            }
         }
-        else {
-            getConfigurations().add(new MonitorConfiguration(id, config));
+    }
+
+    /**
+     * Applies patches to a {@link MonitorConfiguration} atomically, if its version is still the expected one
+     * (optimistic concurrency). If the id does not exist, the patches are applied to the default configuration.
+     * See {@link ConfigurationUtils#applyPatches(JSONArray, JSONArray)} for the supported operations. The patched
+     * config is validated and canonicalized without parsing it again before the configuration is replaced, only
+     * the replacement itself is atomic.
+     *
+     * @param id
+     *          the id of the {@link MonitorConfiguration} to patch.
+     *
+     * @param version
+     *          the version the patches are based on.
+     *
+     * @param patches
+     *          the patches to apply.
+     *
+     * @return
+     *          true, if the patches have been applied, false if the version does not match.
+     *
+     * @throws org.json.JSONException
+     *          if the patches are malformed.
+     *
+     * @throws org.everit.json.schema.ValidationException
+     *          if the patched config does not match the schema.
+     */
+    public boolean patchConfiguration(final String id, final long version, final JSONArray patches) {
+        MonitorConfiguration previous = configurationsById.get(id);
+        long current = previous == null ? 0 : previous.getVersion();
+
+        if (current != version) {
+            return false;
+        }
+
+        MonitorConfiguration base = previous == null ? configurationsById.get(DEFAULT_ID) : previous;
+        MonitorConfiguration configuration = new MonitorConfiguration(id, PortletUtils.validateConfiguration(
+                ConfigurationUtils.applyPatches(new JSONArray(base == null ? "[]" : base.getConfig()), patches)));
+
+        if (previous != null && StringUtils.equals(previous.getHash(), configuration.getHash())) {
+            return true;
+        }
+
+        if (!replace(id, previous, configuration.withVersion(nextVersion()))) {
+            return false;
         }
 
         save();
+        return true;
+    }
+
+    /**
+     * Replaces a {@link MonitorConfiguration}, if it has not been changed concurrently.
+     *
+     * @param id
+     *          the id of the {@link MonitorConfiguration}.
+     *
+     * @param expected
+     *          the expected current configuration or null, if the configuration is expected to be absent.
+     *
+     * @param configuration
+     *          the new configuration.
+     *
+     * @return
+     *          true, if the configuration has been replaced, else false.
+     */
+    private boolean replace(final String id, final MonitorConfiguration expected,
+                            final MonitorConfiguration configuration) {
+        return expected == null
+                ? configurationsById.putIfAbsent(id, configuration) == null
+                : configurationsById.replace(id, expected, configuration);
+    }
+
+    private synchronized long nextVersion() {
+        return ++lastVersion;
     }
 
     /**
@@ -94,8 +246,9 @@ public class MonitorConfigurationProperty extends UserProperty implements Saveab
      *              the id of configuration to remove.
      */
     public void removeConfiguration(final String id) {
-        getConfigurations().remove(getConfiguration(id));
-        save();
+        if (configurationsById.remove(id) != null) {
+            save();
+        }
     }
 
     /**
@@ -109,23 +262,25 @@ public class MonitorConfigurationProperty extends UserProperty implements Saveab
         return current == null ? Optional.empty() : Optional.ofNullable(current.getProperty(MonitorConfigurationProperty.class));
     }
 
+    /**
+     * Schedules a save of the user. Multiple saves in a short period of time are coalesced
+     * into one write by the {@link SaveScheduler}.
+     */
     @Override
     public void save() {
-        try {
-            user.save();
-        }
-        catch (IOException exception) {
-            LOGGER.log(Level.SEVERE, "User could not be saved: ", exception);
-        }
+        SaveScheduler.schedule(user);
     }
 
     /**
-     * The property class to store. Each {@link MonitorConfiguration} has an id and a config (json string).
+     * The property class to store. Each {@link MonitorConfiguration} has an id, a config (json string in
+     * canonical form), the hash of the config and a version, which is incremented on each change.
      */
     public static class MonitorConfiguration {
 
         private final String id;
         private String config;
+        private String hash;
+        private long version;
 
         /**
          * Creates a {@link MonitorConfiguration}.
@@ -137,8 +292,74 @@ public class MonitorConfigurationProperty extends UserProperty implements Saveab
          *          the config of the {@link MonitorConfiguration}.
          */
         public MonitorConfiguration(final String id, final String config) {
+            this(id, config, 0);
+        }
+
+        /**
+         * Creates a {@link MonitorConfiguration} with a version.
+         *
+         * @param id
+         *          the id of the {@link MonitorConfiguration}.
+         *
+         * @param config
+         *          the config of the {@link MonitorConfiguration}.
+         *
+         * @param version
+         *          the version of the {@link MonitorConfiguration}.
+         */
+        public MonitorConfiguration(final String id, final String config, final long version) {
             this.id = id;
-            this.config = config;
+            this.version = version;
+            setConfig(config);
+        }
+
+        /**
+         * Creates a {@link MonitorConfiguration} with a validated config, that is already in canonical form.
+         *
+         * @param id
+         *          the id of the {@link MonitorConfiguration}.
+         *
+         * @param config
+         *          the validated config of the {@link MonitorConfiguration}.
+         */
+        public MonitorConfiguration(final String id, final CanonicalConfiguration config) {
+            this.id = id;
+            this.config = config.getConfig();
+            this.hash = config.getHash();
+        }
+
+        private MonitorConfiguration(final MonitorConfiguration configuration, final long version) {
+            this.id = configuration.id;
+            this.config = configuration.config;
+            this.hash = configuration.hash;
+            this.version = version;
+        }
+
+        /**
+         * Creates a copy of this configuration with another version, without canonicalizing the config again.
+         *
+         * @param version
+         *          the version of the copy.
+         *
+         * @return
+         *          the copy.
+         */
+        MonitorConfiguration withVersion(final long version) {
+            return new MonitorConfiguration(this, version);
+        }
+
+        /**
+         * Converts the config of previous versions into the canonical form and creates the hash.
+         *
+         * @return
+         *          this configuration.
+         */
+        private Object readResolve() {
+            if (hash == null) {
+                setConfig(config);
+            }
+
+            return this;
         }
 
         public String getId() {
@@ -149,8 +370,23 @@ public class MonitorConfigurationProperty extends UserProperty implements Saveab
             return config;
         }
 
-        public void setConfig(final String config) {
-            this.config = config;
+        public String getHash() {
+            return hash;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * Sets the config in canonical form and updates the hash.
+         *
+         * @param config
+         *          the config to set.
+         */
+        public final void setConfig(final String config) {
+            this.config = ConfigurationUtils.canonicalize(config);
+            this.hash = ConfigurationUtils.hash(this.config);
         }
 
     }
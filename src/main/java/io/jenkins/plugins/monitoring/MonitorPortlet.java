@@ -86,6 +86,53 @@ public abstract class MonitorPortlet {
         return Optional.empty();
     }
 
+    /**
+     * Defines whether the rendered content of the portlet may be cached on the server and shared between all users,
+     * that view the dashboard of the same completed build. Only return true, if the content of the portlet
+     * depends on nothing but the build and the locale, e.g. not on the current user or the time.
+     *
+     * @return
+     *          true if the rendered content may be cached, false else.
+     *
+     * @since 1.7.0
+     */
+    public boolean isCacheable() {
+        return false;
+    }
+
+    /**
+     * Defines the version of the data of the portlet. While the build is running, the dashboard polls the versions
+     * of all portlets and reloads the content of a portlet only if its version has changed, e.g. the number of
+     * the recorded test results. The method is called frequently and should therefore be cheap.
+     *
+     * @return
+     *          the version of the data, or {@code Optional.empty()}, if the content of the portlet should only be
+     *          reloaded when the build has been completed.
+     *
+     * @since 1.7.0
+     */
+    public Optional<String> getDataVersion() {
+        return Optional.empty();
+    }
+
+    /**
+     * Creates the render-ready data of the portlet. The method is called once on a background thread after a
+     * build of a pull request has been completed. The snapshot is stored with the build (so it must be serializable
+     * with XStream) and provided to the 'monitor.jelly' view of the portlet as variable {@code snapshot}, or via
+     * {@link MonitoringSnapshotAction#getSnapshot(hudson.model.Run, String)}. The view should fall back to
+     * compute the data, if no snapshot is available, e.g. for running builds or builds of previous versions.
+     * Since the snapshot is created as system and shown to all users, it is only created for portlets, that are
+     * {@link #isCacheable() cacheable}.
+     *
+     * @return
+     *          the snapshot, or null if the portlet does not support snapshots.
+     *
+     * @since 1.7.0
+     */
+    public Object createSnapshot() {
+        return null;
+    }
+
     /**
      * {@inheritDoc}
      */
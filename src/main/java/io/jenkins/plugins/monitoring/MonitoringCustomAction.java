@@ -2,6 +2,7 @@ package io.jenkins.plugins.monitoring;
 
 import hudson.model.InvisibleAction;
 import hudson.model.Run;
+import io.jenkins.plugins.monitoring.util.ConfigurationUtils;
 
 /**
  * This action is added to {@link Run}, if configuration is set in the Jenkinsfile. Therefore the portlets of this
@@ -11,20 +12,44 @@ import hudson.model.Run;
  * @author Simon Symhoven
  */
 public class MonitoringCustomAction extends InvisibleAction {
-    private final String portlets;
+    private String portlets;
+    private String hash;
 
     /**
      * Creates a new instance of {@link MonitoringCustomAction}.
      *
      * @param portlets
-     *          the portlets as json array string to be add.
+     *          the portlets as json array string to be add. The portlets are stored in canonical form.
      */
     public MonitoringCustomAction(final String portlets) {
         super();
-        this.portlets = portlets;
+        setPortlets(portlets);
+    }
+
+    /**
+     * Converts the portlets of previous versions into the canonical form and creates the hash.
+     *
+     * @return
+     *          this action.
+     */
+    private Object readResolve() {
+        if (hash == null) {
+            setPortlets(portlets);
+        }
+
+        return this;
+    }
+
+    private void setPortlets(final String portlets) {
+        this.portlets = ConfigurationUtils.canonicalize(portlets);
+        this.hash = ConfigurationUtils.hash(this.portlets);
     }
 
     public String getPortlets() {
         return portlets;
     }
+
+    public String getHash() {
+        return hash;
+    }
 }
@@ -1,35 +1,34 @@
 package io.jenkins.plugins.monitoring;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import edu.hm.hafner.util.FilteredLog;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import hudson.model.Run;
-import io.jenkins.plugins.forensics.reference.ReferenceFinder;
+import io.jenkins.plugins.monitoring.util.CanonicalConfiguration;
+import io.jenkins.plugins.monitoring.util.ConfigurationUtils;
+import io.jenkins.plugins.monitoring.util.MarkdownUtils;
+import io.jenkins.plugins.monitoring.util.MonitoringMetrics;
 import io.jenkins.plugins.monitoring.util.PortletUtils;
+import io.jenkins.plugins.monitoring.util.ReferenceUtils;
 import j2html.tags.DomContent;
 import jenkins.model.Jenkins;
 import jenkins.model.RunAction2;
 import jenkins.scm.api.metadata.ContributorMetadataAction;
 import jenkins.scm.api.metadata.ObjectMetadataAction;
 import jenkins.scm.api.mixin.ChangeRequestSCMHead2;
-import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.commonmark.node.Node;
-import org.commonmark.parser.Parser;
-import org.commonmark.renderer.html.HtmlRenderer;
+import org.everit.json.schema.ValidationException;
 import org.jenkinsci.plugins.workflow.multibranch.BranchJobProperty;
 import org.json.JSONArray;
+import org.json.JSONException;
 import org.json.JSONObject;
+import org.kohsuke.stapler.Stapler;
 import org.kohsuke.stapler.StaplerProxy;
+import org.kohsuke.stapler.StaplerRequest;
 import org.kohsuke.stapler.bind.JavaScriptMethod;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 import static j2html.TagCreator.*;
 
@@ -167,9 +166,7 @@ public class MonitoringDefaultAction implements RunAction2, StaplerProxy {
      *          the reference build as {@link Optional}.
      */
     private Optional<Run<?, ?>> getReferenceBuild() {
-        FilteredLog log = new FilteredLog("");
-        ReferenceFinder referenceFinder = new ReferenceFinder();
-        return referenceFinder.findReference(getRun(), log);
+        return ReferenceUtils.getReferenceBuild(getRun());
     }
 
     /**
@@ -189,11 +186,7 @@ public class MonitoringDefaultAction implements RunAction2, StaplerProxy {
             return span(i("No description provided.")).render();
         }
 
-        Parser parser = Parser.builder().build();
-        Node document = parser.parse(description);
-        HtmlRenderer renderer = HtmlRenderer.builder().build();
-
-        return renderer.render(document);
+        return MarkdownUtils.render(description);
     }
 
     /**
@@ -208,13 +201,54 @@ public class MonitoringDefaultAction implements RunAction2, StaplerProxy {
     }
 
     /**
-     * Sets the default for {@link MonitorConfigurationProperty}.
+     * Get the {@link DashboardBootstrap} of the dashboard for the current user. The bootstrap is created once
+     * per request and shared by all views and the dashboard script.
+     *
+     * @return
+     *          the {@link DashboardBootstrap}.
      */
-    private void setDefaultMonitorConfiguration() {
-        MonitorConfigurationProperty
-                .forCurrentUser()
-                .ifPresent(monitorConfigurationProperty -> monitorConfigurationProperty
-                        .createOrUpdateConfiguration(MonitorConfigurationProperty.DEFAULT_ID, resolvePortlets()));
+    public DashboardBootstrap getBootstrap() {
+        StaplerRequest request = Stapler.getCurrentRequest();
+
+        if (request == null) {
+            return new DashboardBootstrap(this);
+        }
+
+        String attribute = DashboardBootstrap.class.getName() + ":" + getRun().getExternalizableId();
+        DashboardBootstrap bootstrap = (DashboardBootstrap) request.getAttribute(attribute);
+
+        if (bootstrap == null) {
+            bootstrap = new DashboardBootstrap(this);
+            request.setAttribute(attribute, bootstrap);
+        }
+
+        return bootstrap;
+    }
+
+    /**
+     * Get all available portlets, that are part of the current dashboard configuration of the user.
+     *
+     * @return
+     *          the active portlets in the order of the configuration.
+     */
+    public List<MonitorPortlet> getActivePortlets() {
+        return getBootstrap().getActivePortlets();
+    }
+
+    /**
+     * Get a single portlet of the dashboard to render it on demand, e.g. if the user adds a portlet
+     * to the dashboard.
+     *
+     * @param id
+     *          the id of the portlet.
+     *
+     * @return
+     *          the {@link PortletFragment} or null, if the portlet is not available.
+     */
+    public PortletFragment getPortlet(final String id) {
+        return PortletUtils.getPortletCatalog(getRun()).findPortlet(id)
+                .map(portlet -> new PortletFragment(this, portlet))
+                .orElse(null);
     }
 
     /**
@@ -223,20 +257,18 @@ public class MonitoringDefaultAction implements RunAction2, StaplerProxy {
      * @return
      *          a list of all unavailable portlet ids.
      */
-    @SuppressWarnings("unchecked")
     public List<String> getUnavailablePortlets() {
-        JSONArray portlets = new JSONArray(getConfiguration());
-
-        List<String> usedPlugins = new ArrayList<>();
-
-        for (Object o : portlets) {
-            JSONObject portlet = (JSONObject) o;
-            usedPlugins.add(portlet.getString("id"));
-        }
+        return getBootstrap().getUnavailablePortlets();
+    }
 
-        List<String> availablePlugins = PortletUtils.getAvailablePortlets(getRun())
-                .stream().map(MonitorPortlet::getId).collect(Collectors.toList());
-        return new ArrayList<String>(CollectionUtils.removeAll(usedPlugins, availablePlugins));
+    /**
+     * Get all portlet factories, which failed or did not respond in time while resolving the portlets.
+     *
+     * @return
+     *          a list of the display names of all failed factories.
+     */
+    public List<String> getFailedFactories() {
+        return getBootstrap().getFailedFactories();
     }
 
     /**
@@ -264,7 +296,7 @@ public class MonitoringDefaultAction implements RunAction2, StaplerProxy {
             return false;
         }
 
-        return !areJsonNodesEquals(action.getPortlets(), prevAction.getPortlets());
+        return !action.getHash().equals(prevAction.getHash());
     }
 
     /**
@@ -280,18 +312,7 @@ public class MonitoringDefaultAction implements RunAction2, StaplerProxy {
      *          true, if both are equals, else false.
      */
     public boolean areJsonNodesEquals(final String s1, final String s2) {
-
-        try {
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode node1 = mapper.readTree(s1);
-            JsonNode node2 = mapper.readTree(s2);
-            return node1.equals(node2);
-        }
-        catch (JsonProcessingException exception) {
-            LOGGER.log(Level.SEVERE, "Json could not be parsed: ", exception);
-        }
-
-        return false;
+        return ConfigurationUtils.areJsonNodesEquals(s1, s2);
     }
 
     /*
@@ -307,10 +328,19 @@ public class MonitoringDefaultAction implements RunAction2, StaplerProxy {
      */
     @JavaScriptMethod
     public void updateMonitorConfiguration(final String config) {
-        MonitorConfigurationProperty
-                .forCurrentUser()
-                .ifPresent(monitorConfigurationProperty ->
-                        monitorConfigurationProperty.createOrUpdateConfiguration(getConfigurationId(), config));
+        MonitoringMetrics.time("javascript.updateMonitorConfiguration", () -> {
+            try {
+                CanonicalConfiguration configuration = PortletUtils.validateConfiguration(config);
+
+                MonitorConfigurationProperty
+                        .forCurrentUser()
+                        .ifPresent(monitorConfigurationProperty -> monitorConfigurationProperty
+                                .createOrUpdateConfiguration(getConfigurationId(), configuration));
+            }
+            catch (ValidationException | JSONException exception) {
+                LOGGER.log(Level.WARNING, "Invalid configuration will not be saved: ", exception);
+            }
+        });
     }
 
     /**
@@ -323,12 +353,16 @@ public class MonitoringDefaultAction implements RunAction2, StaplerProxy {
      */
     @JavaScriptMethod
     public String getConfiguration() {
+        return MonitoringMetrics.time("javascript.getConfiguration", this::getUserConfiguration);
+    }
 
-        MonitorConfigurationProperty monitorConfigurationProperty = MonitorConfigurationProperty
-                .forCurrentUser().orElse(null);
+    private String getUserConfiguration() {
+        MonitorConfigurationProperty.MonitorConfiguration configuration = MonitorConfigurationProperty
+                .forCurrentUser()
+                .map(property -> property.getConfiguration(getConfigurationId()))
+                .orElse(null);
 
-        return monitorConfigurationProperty == null
-                ? resolvePortlets() : monitorConfigurationProperty.getConfiguration(getConfigurationId()).getConfig();
+        return configuration == null ? getDefaultConfiguration() : configuration.getConfig();
     }
 
     /**
@@ -339,7 +373,10 @@ public class MonitoringDefaultAction implements RunAction2, StaplerProxy {
      */
     @JavaScriptMethod
     public boolean isMonitorConfigurationSynced() {
+        return MonitoringMetrics.time("javascript.isMonitorConfigurationSynced", this::isSynced);
+    }
 
+    boolean isSynced() {
         MonitorConfigurationProperty monitorConfigurationProperty = MonitorConfigurationProperty.forCurrentUser()
                 .orElse(null);
 
@@ -357,7 +394,86 @@ public class MonitoringDefaultAction implements RunAction2, StaplerProxy {
         MonitorConfigurationProperty.MonitorConfiguration defaultConfiguration =
                 monitorConfigurationProperty.getConfiguration(MonitorConfigurationProperty.DEFAULT_ID);
 
-        return areJsonNodesEquals(projectConfiguration.getConfig(), defaultConfiguration.getConfig());
+        return defaultConfiguration == null || projectConfiguration.getHash().equals(defaultConfiguration.getHash());
+    }
+
+    /**
+     * Get the current dashboard configuration of user with its version and sync state.
+     *
+     * @return
+     *          the state as json object string: {@code {"version": 1, "synced": true, "conflict": false,
+     *          "config": [...]}}.
+     */
+    @JavaScriptMethod
+    public String getConfigurationState() {
+        return MonitoringMetrics.time("javascript.getConfigurationState",
+                () -> createConfigurationState(false, null));
+    }
+
+    /**
+     * Applies patches to the dashboard configuration of user atomically. The patches are only applied, if the
+     * configuration has not been changed since the given version, e.g. in another browser tab. See
+     * {@link ConfigurationUtils#applyPatches(JSONArray, JSONArray)} for the supported operations.
+     *
+     * @param version
+     *              the version the patches are based on.
+     *
+     * @param patches
+     *              the patches as json array string.
+     *
+     * @return
+     *              the new state as json object string, see {@link #getConfigurationState()}. If the version does
+     *              not match, nothing is changed and conflict is true. If the patches are invalid, nothing is
+     *              changed and the state contains the reason as error.
+     */
+    @JavaScriptMethod
+    public String patchMonitorConfiguration(final long version, final String patches) {
+        return MonitoringMetrics.time("javascript.patchMonitorConfiguration", () -> {
+            MonitorConfigurationProperty monitorConfigurationProperty = MonitorConfigurationProperty
+                    .forCurrentUser().orElse(null);
+
+            if (monitorConfigurationProperty == null) {
+                return createConfigurationState(false, null);
+            }
+
+            try {
+                boolean applied = monitorConfigurationProperty.patchConfiguration(getConfigurationId(), version,
+                        new JSONArray(patches));
+
+                return createConfigurationState(!applied, null);
+            }
+            catch (ValidationException | JSONException | IllegalArgumentException exception) {
+                LOGGER.log(Level.WARNING, "Invalid patches will not be applied: ", exception);
+                return createConfigurationState(false, exception.getMessage());
+            }
+        });
+    }
+
+    private String createConfigurationState(final boolean conflict, @CheckForNull final String error) {
+        long version = MonitorConfigurationProperty.forCurrentUser()
+                .map(monitorConfigurationProperty -> monitorConfigurationProperty.getVersion(getConfigurationId()))
+                .orElse(0L);
+
+        return new JSONObject()
+                .put("version", version)
+                .put("synced", isSynced())
+                .put("conflict", conflict)
+                .putOpt("error", error)
+                .put("config", new JSONArray(getUserConfiguration()))
+                .toString();
+    }
+
+    /**
+     * Get the live state of the dashboard, that is polled while the build is running. The client reloads only
+     * the portlets, whose data version has changed, and all portlets once the build has been completed.
+     *
+     * @return
+     *          the live state as json object string: {@code {"building": true, "portlets": {"id": "version"}}}.
+     */
+    @JavaScriptMethod
+    public String getLiveState() {
+        return MonitoringMetrics.time("javascript.getLiveState", () -> DashboardBootstrap.createLiveState(getRun(),
+                PortletUtils.getPortletCatalog(getRun())).toString());
     }
 
     /**
@@ -369,6 +485,10 @@ public class MonitoringDefaultAction implements RunAction2, StaplerProxy {
      */
     @JavaScriptMethod
     public String resolvePortlets() {
+        return MonitoringMetrics.time("javascript.resolvePortlets", this::getDefaultConfiguration);
+    }
+
+    private String getDefaultConfiguration() {
         MonitoringCustomAction action = getRun().getAction(MonitoringCustomAction.class);
         return action == null ? getPortlets() : action.getPortlets();
     }
@@ -378,14 +498,14 @@ public class MonitoringDefaultAction implements RunAction2, StaplerProxy {
      */
     @JavaScriptMethod
     public void resetMonitorConfiguration() {
-        MonitorConfigurationProperty
+        MonitoringMetrics.time("javascript.resetMonitorConfiguration", () -> MonitorConfigurationProperty
                 .forCurrentUser()
-                .ifPresent(monitorConfigurationProperty -> monitorConfigurationProperty.removeConfiguration(getConfigurationId()));
+                .ifPresent(monitorConfigurationProperty ->
+                        monitorConfigurationProperty.removeConfiguration(getConfigurationId())));
     }
 
     @Override
     public Object getTarget() {
-        setDefaultMonitorConfiguration();
         return this;
     }
 
@@ -12,7 +12,9 @@ import java.util.Collection;
 import java.util.Collections;
 
 /**
- * A {@link TransientActionFactory} to add an action to specific {@link Run}.
+ * A {@link TransientActionFactory} to add an action to specific {@link Run}. The action is created on each call,
+ * like all transient actions: it is cheap to create and does not pin the run in memory. Only the classification of
+ * the job as pull request is cached, see {@link PullRequestUtils#isPullRequest(Job)}.
  *
  * @author Simon Symhoven
  */
@@ -26,11 +28,6 @@ public class MonitoringDefaultActionFactory extends TransientActionFactory<Run>
     @NonNull
     @Override
     public Collection<? extends Action> createFor(@NonNull final Run run) {
-
-        if (run.isBuilding()) {
-            return Collections.emptyList();
-        }
-
         final Job<?, ?> job = run.getParent();
 
         if (PullRequestUtils.isPullRequest(job)) {
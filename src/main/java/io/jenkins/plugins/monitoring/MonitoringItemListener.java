@@ -0,0 +1,41 @@
+package io.jenkins.plugins.monitoring;
+
+import hudson.Extension;
+import hudson.model.Item;
+import hudson.model.Job;
+import hudson.model.listeners.ItemListener;
+import jenkins.branch.MultiBranchProject;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * An {@link ItemListener} to keep the {@link PullRequestIndex} up to date, when pull request jobs
+ * are created, deleted or renamed.
+ *
+ * @author Simon Symhoven
+ */
+@Extension
+public class MonitoringItemListener extends ItemListener {
+
+    @Override
+    public void onCreated(final Item item) {
+        if (item instanceof Job) {
+            PullRequestIndex.forJob((Job<?, ?>) item).ifPresent(index -> index.update((Job<?, ?>) item));
+        }
+    }
+
+    @Override
+    public void onDeleted(final Item item) {
+        if (item instanceof Job) {
+            PullRequestIndex.forJob((Job<?, ?>) item).ifPresent(index -> index.remove(item.getName()));
+        }
+    }
+
+    @Override
+    public void onLocationChanged(final Item item, final String oldFullName, final String newFullName) {
+        if (item instanceof Job && item.getParent() instanceof MultiBranchProject) {
+            PullRequestIndex index = PullRequestIndex.forProject((MultiBranchProject<?, ?>) item.getParent());
+            index.remove(StringUtils.substringAfterLast(oldFullName, "/"));
+            index.update((Job<?, ?>) item);
+        }
+    }
+}
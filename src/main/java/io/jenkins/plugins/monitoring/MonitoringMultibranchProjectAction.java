@@ -1,18 +1,31 @@
 package io.jenkins.plugins.monitoring;
 
+import hudson.Util;
 import hudson.model.Action;
+import hudson.model.Item;
 import hudson.model.Job;
 import hudson.model.ProminentProjectAction;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import io.jenkins.plugins.monitoring.util.HttpCacheUtils;
 import io.jenkins.plugins.monitoring.util.PullRequestUtils;
 import jenkins.branch.MultiBranchProject;
 import jenkins.scm.api.metadata.ContributorMetadataAction;
 import jenkins.scm.api.metadata.ObjectMetadataAction;
 import jenkins.scm.api.mixin.ChangeRequestSCMHead2;
+import org.apache.commons.lang3.StringUtils;
 import org.jenkinsci.plugins.workflow.multibranch.BranchJobProperty;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
 
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * This action displays a link on the side panel of a {@link MultiBranchProject}.
@@ -64,9 +77,137 @@ public class MonitoringMultibranchProjectAction implements ProminentProjectActio
      *
      * @return
      *          filtered list of all {@link #getJobs() jobs} by "Pull Request".
+     *
+     * @deprecated the overview is rendered from the {@link PullRequestIndex}, use
+     *          {@link #getPullRequestSummaries()} instead.
      */
+    @Deprecated
     public List<Job<?, ?>> getPullRequests() {
-        return getJobs().stream().filter(PullRequestUtils::isPullRequest).collect(Collectors.toList());
+        return getJobs().filter(PullRequestUtils::isPullRequest).collect(Collectors.toList());
+    }
+
+    /**
+     * Creates the requested page of the pull request overview.
+     *
+     * @param request
+     *          the request with the filter, sort and page parameters.
+     *
+     * @return
+     *          the {@link PullRequestOverview} to render.
+     */
+    public PullRequestOverview getOverview(final StaplerRequest request) {
+        return new PullRequestOverview(getPullRequestSummaries(), request);
+    }
+
+    /**
+     * Get the version token of the {@link PullRequestIndex} of the selected {@link MultiBranchProject}.
+     *
+     * @return
+     *          the version token.
+     */
+    public String getVersion() {
+        return PullRequestIndex.forProject(multiBranchProject).getVersion();
+    }
+
+    /**
+     * Creates the incremental update of the requested page of the pull request overview, that contains only
+     * the pull requests, that have been changed since the version of the parameter {@code since}.
+     *
+     * @param request
+     *          the request with the filter, sort, page and since parameters.
+     *
+     * @return
+     *          the {@link PullRequestOverviewUpdate} to render.
+     */
+    public PullRequestOverviewUpdate getOverviewUpdate(final StaplerRequest request) {
+        PullRequestIndex index = PullRequestIndex.forProject(multiBranchProject);
+        String version = index.getVersion();
+        Optional<Set<String>> changed = index.getChangedSince(request.getParameter("since"));
+
+        return new PullRequestOverviewUpdate(version, new PullRequestOverview(getPullRequestSummaries(), request),
+                changed);
+    }
+
+    /**
+     * Creates the ETag of the requested page of the pull request overview. It is derived from the version of the
+     * {@link PullRequestIndex}, the filter, sort and page parameters, the locale and the user, but not from the
+     * parameter {@code since}: a client, that already shows the current version, gets a 304.
+     *
+     * @param request
+     *          the request with the filter, sort and page parameters.
+     *
+     * @param version
+     *          the version token of the index.
+     *
+     * @return
+     *          the quoted ETag.
+     */
+    public String getCardsETag(final StaplerRequest request, final String version) {
+        String parameters = Stream.of("target", "contributor", "q", "sort", "order", "page", "size")
+                .map(name -> name + "=" + StringUtils.defaultString(request.getParameter(name)))
+                .collect(Collectors.joining("&"));
+
+        return "\"" + Util.getDigestOf(String.join("|", version, parameters, String.valueOf(request.getLocale()),
+                HttpCacheUtils.getUser())) + "\"";
+    }
+
+    /**
+     * Renders the cards of the requested page of the overview, that have been changed since the version of the
+     * parameter {@code since}, via the associated 'cards.jelly' view. If the client already shows the current
+     * version, only a 304 is sent.
+     *
+     * @param request
+     *          the current request.
+     *
+     * @param response
+     *          the current response.
+     *
+     * @throws IOException
+     *          if the cards could not be written.
+     *
+     * @throws ServletException
+     *          if the cards could not be rendered.
+     */
+    public void doCards(final StaplerRequest request, final StaplerResponse response)
+            throws IOException, ServletException {
+        if (HttpCacheUtils.isNotModified(request, response, getCardsETag(request, getVersion()))) {
+            return;
+        }
+
+        request.getView(this, "cards.jelly").forward(request, response);
+    }
+
+    /**
+     * Get the {@link PullRequestSummary} of each pull request of the selected {@link MultiBranchProject}
+     * from the {@link PullRequestIndex}, that the current user is permitted to read.
+     *
+     * @return
+     *          the summaries of all readable pull requests.
+     */
+    public Collection<PullRequestSummary> getPullRequestSummaries() {
+        return PullRequestIndex.forProject(multiBranchProject).getPullRequests().stream()
+                .filter(this::canRead)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Checks if the current user is permitted to read the job of a pull request. The job is looked up as system,
+     * since {@link MultiBranchProject#getItem(String)} fails, if the user may only discover the job.
+     *
+     * @param summary
+     *          the summary of the pull request.
+     *
+     * @return
+     *          true, if the current user has {@link Item#READ} on the job, else false.
+     */
+    private boolean canRead(final PullRequestSummary summary) {
+        Job<?, ?> job;
+
+        try (ACLContext ignored = ACL.as2(ACL.SYSTEM2)) {
+            job = multiBranchProject.getItem(summary.getName());
+        }
+
+        return job != null && job.hasPermission(Item.READ);
     }
 
     /**
@@ -77,7 +218,11 @@ public class MonitoringMultibranchProjectAction implements ProminentProjectActio
      *
      * @return
      *          the {@link ChangeRequestSCMHead2} of job.
+     *
+     * @deprecated the overview is rendered from the {@link PullRequestIndex}, use
+     *          {@link #getPullRequestSummaries()} instead.
      */
+    @Deprecated
     public ChangeRequestSCMHead2 getScmHead(final Job<?, ?> job) {
         return (ChangeRequestSCMHead2) job.getProperty(BranchJobProperty.class).getBranch().getHead();
     }
@@ -86,10 +231,10 @@ public class MonitoringMultibranchProjectAction implements ProminentProjectActio
      * Fetch all jobs (items) of current {@link MultiBranchProject}.
      *
      * @return
-     *          {@link List} of all jobs of current {@link MultiBranchProject}.
+     *          {@link Stream} of all jobs of current {@link MultiBranchProject}.
      */
-    private List<Job<?, ?>> getJobs() {
-        return multiBranchProject.getItems().stream().map(item -> (Job<?, ?>) item).collect(Collectors.toList());
+    private Stream<Job<?, ?>> getJobs() {
+        return multiBranchProject.getItems().stream().map(item -> (Job<?, ?>) item);
     }
 
     /**
@@ -100,7 +245,11 @@ public class MonitoringMultibranchProjectAction implements ProminentProjectActio
      *          the job to get {@link ObjectMetadataAction} for.
      * @return
      *          the {@link ObjectMetadataAction} for the given job as {@link Optional}.
+     *
+     * @deprecated the overview is rendered from the {@link PullRequestIndex}, use
+     *          {@link #getPullRequestSummaries()} instead.
      */
+    @Deprecated
     public Optional<ObjectMetadataAction> getObjectMetaData(final Job<?, ?> job) {
         return Optional.ofNullable(
                 job.getProperty(BranchJobProperty.class).getBranch().getAction(ObjectMetadataAction.class));
@@ -113,7 +262,11 @@ public class MonitoringMultibranchProjectAction implements ProminentProjectActio
      *          the job to get {@link ContributorMetadataAction} for.
      * @return
      *          the {@link ContributorMetadataAction} for the given job as {@link Optional}.
+     *
+     * @deprecated the overview is rendered from the {@link PullRequestIndex}, use
+     *          {@link #getPullRequestSummaries()} instead.
      */
+    @Deprecated
     public Optional<ContributorMetadataAction> getContributorMetaData(final Job<?, ?> job) {
         return Optional.ofNullable(
                 job.getProperty(BranchJobProperty.class).getBranch().getAction(ContributorMetadataAction.class));
@@ -0,0 +1,46 @@
+package io.jenkins.plugins.monitoring;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import hudson.model.InvisibleAction;
+import hudson.model.Run;
+
+import java.util.Optional;
+
+/**
+ * This action is added to a {@link Run} of a pull request in the background, after the run completed and its
+ * reference build has been found. It records the resolved reference build, so the {@link MonitoringDefaultAction}
+ * does not have to search the reference build on each request.
+ *
+ * @author Simon Symhoven
+ */
+public class MonitoringReferenceAction extends InvisibleAction {
+    @CheckForNull
+    private final String referenceBuildId;
+
+    /**
+     * Creates a new instance of {@link MonitoringReferenceAction}.
+     *
+     * @param referenceBuildId
+     *          the externalizable id of the reference build. Previous versions recorded null, if no reference
+     *          build has been found.
+     */
+    public MonitoringReferenceAction(@CheckForNull final String referenceBuildId) {
+        super();
+        this.referenceBuildId = referenceBuildId;
+    }
+
+    @CheckForNull
+    public String getReferenceBuildId() {
+        return referenceBuildId;
+    }
+
+    /**
+     * Get the recorded reference build.
+     *
+     * @return
+     *          the reference build as {@link Optional}.
+     */
+    public Optional<Run<?, ?>> getReferenceBuild() {
+        return Optional.ofNullable(referenceBuildId).map(Run::fromExternalizableId);
+    }
+}
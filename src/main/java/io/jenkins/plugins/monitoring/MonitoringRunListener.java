@@ -0,0 +1,58 @@
+package io.jenkins.plugins.monitoring;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.model.listeners.RunListener;
+import io.jenkins.plugins.monitoring.util.FragmentCache;
+import io.jenkins.plugins.monitoring.util.PullRequestUtils;
+import io.jenkins.plugins.monitoring.util.ReferenceUtils;
+import io.jenkins.plugins.monitoring.util.SnapshotUtils;
+import io.jenkins.plugins.monitoring.util.TargetBranchIndex;
+
+/**
+ * A {@link RunListener} to precompute the data of the monitoring dashboard, when a pull request run completes,
+ * including the reference build and the snapshots of the portlets in the background, and to keep the
+ * {@link PullRequestIndex} and {@link TargetBranchIndex} up to date.
+ *
+ * @author Simon Symhoven
+ */
+@Extension
+public class MonitoringRunListener extends RunListener<Run<?, ?>> {
+
+    @Override
+    public void onStarted(final Run<?, ?> run, final TaskListener listener) {
+        updatePullRequestIndex(run);
+    }
+
+    @Override
+    public void onCompleted(final Run<?, ?> run, @NonNull final TaskListener listener) {
+        if (PullRequestUtils.isPullRequest(run.getParent())) {
+            ReferenceUtils.scheduleReferenceBuild(run).thenRun(() -> updatePullRequestIndex(run));
+        }
+        else {
+            TargetBranchIndex.update(run);
+            ReferenceUtils.invalidateMisses();
+            updatePullRequestIndex(run);
+        }
+    }
+
+    @Override
+    public void onFinalized(final Run<?, ?> run) {
+        if (PullRequestUtils.isPullRequest(run.getParent())) {
+            SnapshotUtils.scheduleSnapshots(run);
+        }
+    }
+
+    @Override
+    public void onDeleted(final Run<?, ?> run) {
+        TargetBranchIndex.remove(run);
+        FragmentCache.invalidate(run);
+        updatePullRequestIndex(run);
+    }
+
+    private static void updatePullRequestIndex(final Run<?, ?> run) {
+        PullRequestIndex.forJob(run.getParent()).ifPresent(index -> index.update(run.getParent()));
+    }
+}
@@ -0,0 +1,32 @@
+package io.jenkins.plugins.monitoring;
+
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.init.InitMilestone;
+import hudson.model.Job;
+import hudson.model.Saveable;
+import hudson.model.listeners.SaveableListener;
+import io.jenkins.plugins.monitoring.util.PullRequestUtils;
+import jenkins.model.Jenkins;
+
+/**
+ * A {@link SaveableListener} to keep the {@link PullRequestIndex} and the pull request classification of
+ * {@link PullRequestUtils} up to date, when a job is saved, e.g. when branch indexing updates the metadata of a
+ * pull request.
+ *
+ * @author Simon Symhoven
+ */
+@Extension
+public class MonitoringSaveableListener extends SaveableListener {
+
+    @Override
+    public void onChange(final Saveable saveable, final XmlFile file) {
+        if (saveable instanceof Job) {
+            PullRequestUtils.invalidate((Job<?, ?>) saveable);
+        }
+
+        if (saveable instanceof Job && Jenkins.get().getInitLevel() == InitMilestone.COMPLETED) {
+            PullRequestIndex.forJob((Job<?, ?>) saveable).ifPresent(index -> index.update((Job<?, ?>) saveable));
+        }
+    }
+}
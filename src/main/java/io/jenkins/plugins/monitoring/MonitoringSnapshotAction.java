@@ -0,0 +1,67 @@
+package io.jenkins.plugins.monitoring;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import hudson.model.InvisibleAction;
+import hudson.model.Run;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This action is added to a {@link Run} of a pull request after the run has been completed. It stores the
+ * snapshots of all portlets, that implement {@link MonitorPortlet#createSnapshot()}, so the dashboard does not
+ * have to recompute the data of the portlets on each request.
+ *
+ * @author Simon Symhoven
+ */
+public class MonitoringSnapshotAction extends InvisibleAction {
+    private final Map<String, Object> snapshots;
+
+    /**
+     * Creates a new instance of {@link MonitoringSnapshotAction}.
+     *
+     * @param snapshots
+     *          the snapshots by portlet id.
+     */
+    public MonitoringSnapshotAction(final Map<String, Object> snapshots) {
+        super();
+        this.snapshots = new HashMap<>(snapshots);
+    }
+
+    public Map<String, Object> getSnapshots() {
+        return Collections.unmodifiableMap(snapshots);
+    }
+
+    /**
+     * Get the snapshot of a portlet.
+     *
+     * @param id
+     *          the id of the portlet.
+     *
+     * @return
+     *          the snapshot or null, if the portlet has no snapshot.
+     */
+    @CheckForNull
+    public Object getSnapshot(final String id) {
+        return snapshots.get(id);
+    }
+
+    /**
+     * Get the snapshot of a portlet of a run.
+     *
+     * @param run
+     *          the run of the dashboard.
+     *
+     * @param id
+     *          the id of the portlet.
+     *
+     * @return
+     *          the snapshot or null, if the run or the portlet has no snapshot.
+     */
+    @CheckForNull
+    public static Object getSnapshot(final Run<?, ?> run, final String id) {
+        MonitoringSnapshotAction action = run.getAction(MonitoringSnapshotAction.class);
+        return action == null ? null : action.getSnapshot(id);
+    }
+}
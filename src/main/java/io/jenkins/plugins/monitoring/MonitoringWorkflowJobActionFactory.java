@@ -11,13 +11,14 @@ import java.util.Collection;
 import java.util.Collections;
 
 /**
- * A {@link TransientActionFactory} to add an action to specific {@link WorkflowJob}.
+ * A {@link TransientActionFactory} to add an action to specific {@link WorkflowJob}. The action is created on each
+ * call, like all transient actions, only the classification of the job as pull request is cached, see
+ * {@link PullRequestUtils#isPullRequest(hudson.model.Job)}.
  *
  * @author Simon Symhoven
  */
 @Extension
 public class MonitoringWorkflowJobActionFactory extends TransientActionFactory<WorkflowJob> {
-
     /**
      * Specifies the {@link Class} of the job {@link WorkflowJob} to add the action to.
      *
@@ -0,0 +1,194 @@
+package io.jenkins.plugins.monitoring;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import io.jenkins.plugins.monitoring.util.FragmentCache;
+import io.jenkins.plugins.monitoring.util.HttpCacheUtils;
+import io.jenkins.plugins.monitoring.util.MonitoringMetrics;
+import org.apache.commons.jelly.JellyException;
+import org.apache.commons.jelly.Script;
+import org.apache.commons.jelly.XMLOutput;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+import org.kohsuke.stapler.WebApp;
+import org.kohsuke.stapler.jelly.DefaultScriptInvoker;
+import org.kohsuke.stapler.jelly.HTMLWriterOutput;
+import org.kohsuke.stapler.jelly.JellyClassTearOff;
+
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.io.StringWriter;
+
+/**
+ * A single {@link MonitorPortlet} of a {@link MonitoringDefaultAction}, that can be rendered on its own via
+ * its associated 'item.jelly' view. The dashboard only renders the active portlets into the page and loads
+ * all other portlets on demand from this fragment. Fragments of completed runs support conditional requests,
+ * see {@link HttpCacheUtils}, the content of {@link MonitorPortlet#isCacheable() cacheable} portlets is rendered
+ * only once, see {@link FragmentCache}.
+ *
+ * @author Simon Symhoven
+ */
+public class PortletFragment {
+    private final MonitoringDefaultAction action;
+    private final MonitorPortlet portlet;
+
+    /**
+     * Creates a new instance of {@link PortletFragment}.
+     *
+     * @param action
+     *          the dashboard that owns this fragment.
+     *
+     * @param portlet
+     *          the portlet to render.
+     */
+    public PortletFragment(final MonitoringDefaultAction action, final MonitorPortlet portlet) {
+        this.action = action;
+        this.portlet = portlet;
+    }
+
+    public MonitoringDefaultAction getAction() {
+        return action;
+    }
+
+    public MonitorPortlet getPortlet() {
+        return portlet;
+    }
+
+    /**
+     * Get the snapshot of the portlet, that has been created when the run completed.
+     *
+     * @return
+     *          the snapshot or null, if the portlet has no snapshot.
+     */
+    @CheckForNull
+    public Object getSnapshot() {
+        return MonitoringSnapshotAction.getSnapshot(action.getRun(), portlet.getId());
+    }
+
+    /**
+     * Checks if the client's copy of a resource of the portlet is still valid. Only the resources of
+     * {@link MonitorPortlet#isCacheable() cacheable} portlets are validated, all others may depend on the user,
+     * the time or other builds and are never cached.
+     *
+     * @param request
+     *          the current request.
+     *
+     * @param response
+     *          the current response.
+     *
+     * @param view
+     *          the name of the view, e.g. "content".
+     *
+     * @return
+     *          true, if the client's copy is still valid and a 304 has been sent, else false.
+     */
+    private boolean isNotModified(final StaplerRequest request, final StaplerResponse response,
+                                  final String view) {
+        if (!portlet.isCacheable()) {
+            HttpCacheUtils.preventCaching(response);
+            return false;
+        }
+
+        return HttpCacheUtils.isNotModified(request, response, action.getRun(), getResource(view));
+    }
+
+    /**
+     * Renders the grid item of the portlet via its associated 'item.jelly' view.
+     *
+     * @param request
+     *          the current request.
+     *
+     * @param response
+     *          the current response.
+     *
+     * @throws IOException
+     *          if the item could not be written.
+     *
+     * @throws ServletException
+     *          if the item could not be rendered.
+     */
+    public void doIndex(final StaplerRequest request, final StaplerResponse response)
+            throws IOException, ServletException {
+        if (isNotModified(request, response, "item")) {
+            return;
+        }
+
+        request.getView(this, "item.jelly").forward(request, response);
+    }
+
+    /**
+     * Renders the content of the portlet via its associated 'body.jelly' view and records the render time.
+     *
+     * @param request
+     *          the current request.
+     *
+     * @param response
+     *          the current response.
+     *
+     * @throws IOException
+     *          if the content could not be written.
+     *
+     * @throws ServletException
+     *          if the content could not be rendered.
+     */
+    public void doContent(final StaplerRequest request, final StaplerResponse response)
+            throws IOException, ServletException {
+        if (isNotModified(request, response, "content")) {
+            return;
+        }
+
+        long start = System.nanoTime();
+
+        try {
+            if (portlet.isCacheable()) {
+                String content = FragmentCache.get(action.getRun(), portlet.getId(), request.getLocale(),
+                        () -> render(request, response));
+
+                response.setContentType("text/html;charset=UTF-8");
+                response.getWriter().write(content);
+            }
+            else {
+                request.getView(this, "body.jelly").forward(request, response);
+            }
+        }
+        finally {
+            MonitoringMetrics.record("portlet." + portlet.getId(), start);
+        }
+    }
+
+    /**
+     * Renders the content of the portlet via its associated 'body.jelly' view into a string.
+     *
+     * @param request
+     *          the current request.
+     *
+     * @param response
+     *          the current response.
+     *
+     * @return
+     *          the rendered content.
+     *
+     * @throws IOException
+     *          if the content could not be rendered.
+     */
+    private String render(final StaplerRequest request, final StaplerResponse response) throws IOException {
+        StringWriter writer = new StringWriter();
+
+        try {
+            Script script = WebApp.getCurrent().getMetaClass(this).loadTearOff(JellyClassTearOff.class)
+                    .findScript("body.jelly");
+            XMLOutput output = HTMLWriterOutput.create(writer);
+
+            new DefaultScriptInvoker().invokeScript(request, response, script, this, output);
+            output.flush();
+        }
+        catch (JellyException exception) {
+            throw new IOException("Portlet could not be rendered: ", exception);
+        }
+
+        return writer.toString();
+    }
+
+    private String getResource(final String view) {
+        return "portlet/" + portlet.getId() + "/" + view;
+    }
+}
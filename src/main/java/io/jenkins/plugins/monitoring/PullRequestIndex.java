@@ -0,0 +1,324 @@
+package io.jenkins.plugins.monitoring;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import hudson.XmlFile;
+import hudson.model.Item;
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.model.Saveable;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import io.jenkins.plugins.monitoring.util.PullRequestUtils;
+import io.jenkins.plugins.monitoring.util.SaveScheduler;
+import jenkins.branch.MultiBranchProject;
+import jenkins.model.Jenkins;
+import org.apache.commons.lang3.math.NumberUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * An in-memory index of all pull requests of one {@link MultiBranchProject}. The index is kept up to date by the
+ * {@link MonitoringRunListener}, the {@link MonitoringItemListener} and the {@link MonitoringSaveableListener}
+ * and is stored as snapshot in the directory of the project, so the overview can be rendered after a restart
+ * without loading the builds of each pull request.
+ *
+ * @author Simon Symhoven
+ */
+public final class PullRequestIndex implements Saveable {
+    private static final Logger LOGGER = Logger.getLogger(PullRequestIndex.class.getName());
+    private static final String FILE_NAME = "pull-request-monitoring.xml";
+
+    private static final Cache<MultiBranchProject<?, ?>, IndexHolder> INDICES = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build();
+
+    private final ConcurrentMap<String, PullRequestSummary> pullRequests = new ConcurrentHashMap<>();
+
+    private transient WeakReference<MultiBranchProject<?, ?>> project;
+
+    /**
+     * The version of the index and the version, each pull request has been changed last. Both are only kept in
+     * memory, so the epoch distinguishes versions of different instances of the index, e.g. before a restart.
+     */
+    private transient String epoch;
+    private transient long version;
+    private transient Map<String, Long> modified;
+
+    private PullRequestIndex() {
+        readResolve();
+    }
+
+    private Object readResolve() {
+        epoch = Long.toHexString(ThreadLocalRandom.current().nextLong());
+        version = 0;
+        modified = new HashMap<>();
+        return this;
+    }
+
+    /**
+     * Get the index of a {@link MultiBranchProject}. On first access the index is loaded from the snapshot
+     * and reconciled with the current items of the project. Only the first access of the same project waits
+     * for the index to be loaded, other projects are not blocked.
+     *
+     * @param project
+     *          the project to get the index for.
+     *
+     * @return
+     *          the {@link PullRequestIndex} of the project.
+     */
+    public static PullRequestIndex forProject(final MultiBranchProject<?, ?> project) {
+        return INDICES.asMap().computeIfAbsent(project, ignored -> new IndexHolder()).get(project);
+    }
+
+    /**
+     * Get the {@link PullRequestIndex} of the project the job belongs to.
+     *
+     * @param job
+     *          the job.
+     *
+     * @return
+     *          the {@link PullRequestIndex} as {@link Optional} or {@code Optional.empty()}, if the job
+     *          is not part of a {@link MultiBranchProject}.
+     */
+    public static Optional<PullRequestIndex> forJob(final Job<?, ?> job) {
+        return job.getParent() instanceof MultiBranchProject
+                ? Optional.of(forProject((MultiBranchProject<?, ?>) job.getParent())) : Optional.empty();
+    }
+
+    /**
+     * Get all indexed pull requests, independent of the permissions of the current user. Use
+     * {@link MonitoringMultibranchProjectAction#getPullRequestSummaries()} to get the pull requests, that the
+     * current user is permitted to see.
+     *
+     * @return
+     *          the summaries of all pull requests.
+     */
+    public Collection<PullRequestSummary> getPullRequests() {
+        return Collections.unmodifiableCollection(pullRequests.values());
+    }
+
+    /**
+     * Get the version token of the index. The token changes each time a pull request is added, changed or
+     * removed.
+     *
+     * @return
+     *          the version token.
+     */
+    public synchronized String getVersion() {
+        return epoch + "-" + version;
+    }
+
+    /**
+     * Get the names of all pull requests, that have been added or changed after a version.
+     *
+     * @param since
+     *          the version token, see {@link #getVersion()}.
+     *
+     * @return
+     *          the names of the changed pull requests as {@link Optional} or {@code Optional.empty()}, if the version
+     *          is unknown, e.g. of another instance of the index, and all pull requests must be considered as
+     *          changed.
+     */
+    public synchronized Optional<Set<String>> getChangedSince(@CheckForNull final String since) {
+        if (since == null || !since.startsWith(epoch + "-")) {
+            return Optional.empty();
+        }
+
+        long sinceVersion = NumberUtils.toLong(since.substring(epoch.length() + 1), -1);
+
+        if (sinceVersion < 0 || sinceVersion > version) {
+            return Optional.empty();
+        }
+
+        return Optional.of(modified.entrySet().stream()
+                .filter(entry -> entry.getValue() > sinceVersion)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet()));
+    }
+
+    /**
+     * Updates the summary of a job, or removes the job, if it is not a pull request (anymore). The version of
+     * the index is only changed and the index is only saved, if the summary has been changed. The summary is
+     * created as system, since it is shared by all users.
+     *
+     * @param job
+     *          the job to update.
+     */
+    public void update(final Job<?, ?> job) {
+        if (!PullRequestUtils.isPullRequest(job)) {
+            remove(job.getName());
+            return;
+        }
+
+        PullRequestSummary summary;
+
+        try (ACLContext ignored = ACL.as2(ACL.SYSTEM2)) {
+            summary = new PullRequestSummary(job);
+        }
+
+        if (put(summary)) {
+            SaveScheduler.schedule(this);
+        }
+    }
+
+    /**
+     * Removes a job from the index.
+     *
+     * @param name
+     *          the name of the job.
+     */
+    public synchronized void remove(final String name) {
+        if (pullRequests.remove(name) != null) {
+            modified.remove(name);
+            version++;
+            SaveScheduler.schedule(this);
+        }
+    }
+
+    private synchronized boolean put(final PullRequestSummary summary) {
+        if (summary.equals(pullRequests.put(summary.getName(), summary))) {
+            return false;
+        }
+
+        version++;
+        modified.put(summary.getName(), version);
+        return true;
+    }
+
+    @Override
+    public void save() throws IOException {
+        XmlFile file = getFile();
+
+        if (file != null) {
+            file.write(this);
+        }
+    }
+
+    @CheckForNull
+    private XmlFile getFile() {
+        MultiBranchProject<?, ?> owner = project.get();
+        return owner == null ? null : getFile(owner);
+    }
+
+    private static XmlFile getFile(final MultiBranchProject<?, ?> project) {
+        return new XmlFile(Jenkins.XSTREAM2, new File(project.getRootDir(), FILE_NAME));
+    }
+
+    private static PullRequestIndex load(final MultiBranchProject<?, ?> project) {
+        XmlFile file = getFile(project);
+        PullRequestIndex index = null;
+
+        if (file.exists()) {
+            try {
+                index = (PullRequestIndex) file.read();
+            }
+            catch (IOException exception) {
+                LOGGER.log(Level.WARNING, "Pull request index could not be loaded: ", exception);
+            }
+        }
+
+        if (index == null) {
+            index = new PullRequestIndex();
+        }
+
+        index.project = new WeakReference<>(project);
+        index.reconcile(project);
+
+        return index;
+    }
+
+    /**
+     * Removes all pull requests, that are no items of the project anymore, and adds or refreshes all pull
+     * requests, that are missing or stale in the index. The index is shared by all users, so it is reconciled as
+     * system, independent of the permissions of the user, that accesses the index first.
+     *
+     * @param owner
+     *          the project of this index.
+     */
+    private void reconcile(final MultiBranchProject<?, ?> owner) {
+        try (ACLContext ignored = ACL.as2(ACL.SYSTEM2)) {
+            boolean changed = pullRequests.keySet().removeIf(name -> owner.getItem(name) == null);
+
+            for (Item item : owner.getItems()) {
+                Job<?, ?> job = (Job<?, ?>) item;
+
+                if (PullRequestUtils.isPullRequest(job) && isStale(pullRequests.get(job.getName()), job)) {
+                    changed |= put(new PullRequestSummary(job));
+                }
+            }
+
+            if (changed) {
+                SaveScheduler.schedule(this);
+            }
+        }
+    }
+
+    /**
+     * Checks if the summary of a pull request is missing or does not describe the current last build of the job,
+     * e.g. since builds ran or completed while the snapshot has not been saved. The build number is compared
+     * first, so the last build is only loaded, if the summary describes a build, that was still running.
+     *
+     * @param summary
+     *          the summary of the pull request or null, if the pull request is not indexed.
+     *
+     * @param job
+     *          the job of the pull request.
+     *
+     * @return
+     *          true, if the summary must be created again, else false.
+     */
+    private static boolean isStale(@CheckForNull final PullRequestSummary summary, final Job<?, ?> job) {
+        if (summary == null || summary.getLastBuildNumber() != job.getNextBuildNumber() - 1) {
+            return true;
+        }
+
+        if (summary.getLastBuildNumber() == 0 || summary.isLastBuildCompleted()) {
+            return false;
+        }
+
+        Run<?, ?> lastBuild = job.getLastBuild();
+        return lastBuild == null || !lastBuild.isBuilding();
+    }
+
+    /**
+     * Loads the index of one project lazily. The holder is created without blocking, so loading the index of
+     * one project only blocks the accesses of the same project.
+     */
+    private static final class IndexHolder {
+        @CheckForNull
+        private volatile PullRequestIndex index;
+
+        PullRequestIndex get(final MultiBranchProject<?, ?> project) {
+            PullRequestIndex result = index;
+
+            if (result == null) {
+                synchronized (this) {
+                    result = index;
+
+                    if (result == null) {
+                        result = load(project);
+                        index = result;
+                    }
+                }
+            }
+
+            return result;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package io.jenkins.plugins.monitoring;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.kohsuke.stapler.StaplerRequest;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * One page of the pull request overview of the {@link MonitoringMultibranchProjectAction}. The pull requests are
+ * filtered, sorted and paginated according to the query parameters of the request.
+ *
+ * <ul>
+ *     <li>{@code target}: the name of the target branch.</li>
+ *     <li>{@code contributor}: the name of the contributor.</li>
+ *     <li>{@code q}: a text to search in number, title, name, contributor and source.</li>
+ *     <li>{@code sort}: {@code lastBuild} (default), {@code number} or {@code contributor}.</li>
+ *     <li>{@code order}: {@code asc} or {@code desc}.</li>
+ *     <li>{@code page}: the page to show, starting with 1.</li>
+ *     <li>{@code size}: the number of pull requests per page.</li>
+ * </ul>
+ *
+ * @author Simon Symhoven
+ */
+public class PullRequestOverview {
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+
+    private static final String SORT_LAST_BUILD = "lastBuild";
+    private static final String SORT_NUMBER = "number";
+    private static final String SORT_CONTRIBUTOR = "contributor";
+
+    private final List<String> targets;
+    private final List<String> contributors;
+    private final List<PullRequestSummary> pullRequests;
+    private final int total;
+
+    private final String target;
+    private final String contributor;
+    private final String text;
+    private final String sort;
+    private final boolean ascending;
+    private final int page;
+    private final int pageSize;
+    private final int pageCount;
+
+    /**
+     * Creates a new instance of {@link PullRequestOverview}.
+     *
+     * @param summaries
+     *          all pull requests of the project.
+     *
+     * @param request
+     *          the request with the query parameters.
+     */
+    public PullRequestOverview(final Collection<PullRequestSummary> summaries, final StaplerRequest request) {
+        target = StringUtils.defaultString(request.getParameter("target"));
+        contributor = StringUtils.defaultString(request.getParameter("contributor"));
+        text = StringUtils.defaultString(request.getParameter("q")).trim();
+        sort = StringUtils.defaultIfBlank(request.getParameter("sort"), SORT_LAST_BUILD);
+        ascending = StringUtils.isBlank(request.getParameter("order"))
+                ? SORT_CONTRIBUTOR.equals(sort) : "asc".equals(request.getParameter("order"));
+        pageSize = Math.min(MAX_PAGE_SIZE,
+                Math.max(1, NumberUtils.toInt(request.getParameter("size"), DEFAULT_PAGE_SIZE)));
+
+        targets = distinct(summaries, PullRequestSummary::getTarget);
+        contributors = distinct(summaries, PullRequestSummary::getContributor);
+
+        List<PullRequestSummary> filtered = summaries.stream()
+                .filter(createFilter())
+                .sorted(createComparator())
+                .collect(Collectors.toList());
+
+        total = filtered.size();
+        pageCount = Math.max(1, (total + pageSize - 1) / pageSize);
+        page = Math.min(pageCount, Math.max(1, NumberUtils.toInt(request.getParameter("page"), 1)));
+
+        int from = (page - 1) * pageSize;
+        pullRequests = filtered.subList(from, Math.min(total, from + pageSize));
+    }
+
+    private Predicate<PullRequestSummary> createFilter() {
+        return summary -> (target.isEmpty() || target.equals(summary.getTarget()))
+                && (contributor.isEmpty() || contributor.equals(summary.getContributor()))
+                && (text.isEmpty() || matches(summary));
+    }
+
+    private boolean matches(final PullRequestSummary summary) {
+        return StringUtils.containsIgnoreCase(summary.getNumber(), text)
+                || StringUtils.containsIgnoreCase(summary.getTitle(), text)
+                || StringUtils.containsIgnoreCase(summary.getDisplayName(), text)
+                || StringUtils.containsIgnoreCase(summary.getContributor(), text)
+                || StringUtils.containsIgnoreCase(summary.getSource(), text);
+    }
+
+    private Comparator<PullRequestSummary> createComparator() {
+        Comparator<PullRequestSummary> comparator;
+
+        switch (sort) {
+            case SORT_NUMBER:
+                comparator = Comparator.comparingLong((PullRequestSummary summary) ->
+                        NumberUtils.toLong(summary.getNumber(), Long.MAX_VALUE))
+                        .thenComparing(PullRequestSummary::getNumber);
+                break;
+            case SORT_CONTRIBUTOR:
+                comparator = Comparator.comparing(PullRequestSummary::getContributor,
+                        Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
+                break;
+            default:
+                comparator = Comparator.comparingLong(PullRequestSummary::getLastBuildTimestamp);
+                break;
+        }
+
+        return ascending ? comparator : comparator.reversed();
+    }
+
+    private static List<String> distinct(final Collection<PullRequestSummary> summaries,
+                                         final Function<PullRequestSummary, String> property) {
+        return summaries.stream()
+                .map(property)
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted(String.CASE_INSENSITIVE_ORDER)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Get the pull requests of the current page.
+     *
+     * @return
+     *          the pull requests to show.
+     */
+    public List<PullRequestSummary> getPullRequests() {
+        return pullRequests;
+    }
+
+    /**
+     * Get the number of all pull requests that match the filter.
+     *
+     * @return
+     *          the number of pull requests.
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    public List<String> getTargets() {
+        return targets;
+    }
+
+    public List<String> getContributors() {
+        return contributors;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    public String getContributor() {
+        return contributor;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public String getOrder() {
+        return ascending ? "asc" : "desc";
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Creates the query string for another page with the current filter and sort order.
+     *
+     * @param otherPage
+     *          the page to link to.
+     *
+     * @return
+     *          the query string, e.g. "sort=number&amp;order=asc&amp;page=2".
+     */
+    public String getQuery(final int otherPage) {
+        Map<String, String> parameters = new LinkedHashMap<>();
+        parameters.put("target", target);
+        parameters.put("contributor", contributor);
+        parameters.put("q", text);
+        parameters.put("sort", sort);
+        parameters.put("order", getOrder());
+        parameters.put("size", pageSize == DEFAULT_PAGE_SIZE ? "" : String.valueOf(pageSize));
+        parameters.put("page", String.valueOf(otherPage));
+
+        return parameters.entrySet().stream()
+                .filter(parameter -> !parameter.getValue().isEmpty())
+                .map(parameter -> parameter.getKey() + "=" + URLEncoder.encode(parameter.getValue(), StandardCharsets.UTF_8))
+                .collect(Collectors.joining("&"));
+    }
+}
@@ -0,0 +1,73 @@
+package io.jenkins.plugins.monitoring;
+
+import org.json.JSONArray;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The incremental update of one page of the pull request overview. It contains the cards of all pull requests of
+ * the page, that have been changed since the version of the client, and the order of all pull requests of the
+ * page, so the client can add, replace, remove and sort its cards without reloading the page.
+ *
+ * @author Simon Symhoven
+ */
+public class PullRequestOverviewUpdate {
+    private final String version;
+    private final PullRequestOverview overview;
+    private final List<PullRequestSummary> pullRequests;
+
+    /**
+     * Creates a new instance of {@link PullRequestOverviewUpdate}.
+     *
+     * @param version
+     *          the version of the index the update is based on.
+     *
+     * @param overview
+     *          the current page of the overview.
+     *
+     * @param changed
+     *          the names of the pull requests, that have been changed since the version of the client, or
+     *          {@code Optional.empty()}, if all pull requests of the page must be sent.
+     */
+    public PullRequestOverviewUpdate(final String version, final PullRequestOverview overview,
+                                     final Optional<Set<String>> changed) {
+        this.version = version;
+        this.overview = overview;
+        this.pullRequests = overview.getPullRequests().stream()
+                .filter(summary -> changed.map(names -> names.contains(summary.getName())).orElse(true))
+                .collect(Collectors.toList());
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public PullRequestOverview getOverview() {
+        return overview;
+    }
+
+    /**
+     * Get the changed pull requests of the page.
+     *
+     * @return
+     *          the pull requests to send.
+     */
+    public List<PullRequestSummary> getPullRequests() {
+        return pullRequests;
+    }
+
+    /**
+     * Get the names of all pull requests of the page in the order to show.
+     *
+     * @return
+     *          the names as json array string.
+     */
+    public String getOrder() {
+        return new JSONArray(overview.getPullRequests().stream()
+                .map(PullRequestSummary::getName)
+                .collect(Collectors.toList())).toString();
+    }
+}
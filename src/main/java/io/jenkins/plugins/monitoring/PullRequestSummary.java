@@ -0,0 +1,171 @@
+package io.jenkins.plugins.monitoring;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import hudson.model.Job;
+import hudson.model.Run;
+import io.jenkins.plugins.monitoring.util.ReferenceUtils;
+import jenkins.branch.Branch;
+import jenkins.scm.api.metadata.ContributorMetadataAction;
+import jenkins.scm.api.metadata.ObjectMetadataAction;
+import jenkins.scm.api.mixin.ChangeRequestSCMHead2;
+import org.jenkinsci.plugins.workflow.multibranch.BranchJobProperty;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The view model of one pull request in the overview of the {@link MonitoringMultibranchProjectAction}.
+ * All values are resolved once when the summary is created. The reference build is only read from the
+ * {@link MonitoringReferenceAction}, that is recorded in the background when the build completes, so creating a
+ * summary never searches the reference build. Until then the reference build is unknown.
+ *
+ * @author Simon Symhoven
+ */
+public class PullRequestSummary {
+    private final String name;
+    private final String displayName;
+    private final String number;
+    @CheckForNull
+    private final String title;
+    @CheckForNull
+    private final String url;
+    @CheckForNull
+    private final String contributor;
+    private final String source;
+    private final String target;
+    @CheckForNull
+    private final String lastBuildUrl;
+    private final long lastBuildTimestamp;
+    private final int lastBuildNumber;
+    private final boolean lastBuildCompleted;
+    @CheckForNull
+    private final String referenceBuildUrl;
+    @CheckForNull
+    private final String referenceBuildName;
+
+    /**
+     * Creates a new instance of {@link PullRequestSummary} for a pull request job.
+     *
+     * @param job
+     *          the job of the pull request.
+     */
+    public PullRequestSummary(final Job<?, ?> job) {
+        Branch branch = job.getProperty(BranchJobProperty.class).getBranch();
+        ChangeRequestSCMHead2 head = (ChangeRequestSCMHead2) branch.getHead();
+        ObjectMetadataAction objectMetadata = branch.getAction(ObjectMetadataAction.class);
+        ContributorMetadataAction contributorMetadata = branch.getAction(ContributorMetadataAction.class);
+        Run<?, ?> lastBuild = job.getLastBuild();
+        Optional<Run<?, ?>> referenceBuild = lastBuild == null
+                ? Optional.empty() : ReferenceUtils.getRecordedReferenceBuild(lastBuild);
+
+        this.name = job.getName();
+        this.displayName = job.getDisplayName();
+        this.number = head.getId();
+        this.title = objectMetadata == null ? null : objectMetadata.getObjectDisplayName();
+        this.url = objectMetadata == null ? null : objectMetadata.getObjectUrl();
+        this.contributor = contributorMetadata == null ? null : contributorMetadata.getContributor();
+        this.source = head.getOriginName();
+        this.target = head.getTarget().getName();
+        this.lastBuildUrl = lastBuild == null ? null : lastBuild.getUrl();
+        this.lastBuildTimestamp = lastBuild == null ? 0 : lastBuild.getTimeInMillis();
+        this.lastBuildNumber = lastBuild == null ? 0 : lastBuild.getNumber();
+        this.lastBuildCompleted = lastBuild != null && !lastBuild.isBuilding();
+        this.referenceBuildUrl = referenceBuild.map(Run::getUrl).orElse(null);
+        this.referenceBuildName = referenceBuild.map(Run::getFullDisplayName).orElse(null);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public String getNumber() {
+        return number;
+    }
+
+    @CheckForNull
+    public String getTitle() {
+        return title;
+    }
+
+    @CheckForNull
+    public String getUrl() {
+        return url;
+    }
+
+    @CheckForNull
+    public String getContributor() {
+        return contributor;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    @CheckForNull
+    public String getLastBuildUrl() {
+        return lastBuildUrl;
+    }
+
+    public long getLastBuildTimestamp() {
+        return lastBuildTimestamp;
+    }
+
+    public int getLastBuildNumber() {
+        return lastBuildNumber;
+    }
+
+    public boolean isLastBuildCompleted() {
+        return lastBuildCompleted;
+    }
+
+    @CheckForNull
+    public String getReferenceBuildUrl() {
+        return referenceBuildUrl;
+    }
+
+    @CheckForNull
+    public String getReferenceBuildName() {
+        return referenceBuildName;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        PullRequestSummary that = (PullRequestSummary) o;
+        return lastBuildTimestamp == that.lastBuildTimestamp
+                && lastBuildNumber == that.lastBuildNumber
+                && lastBuildCompleted == that.lastBuildCompleted
+                && name.equals(that.name)
+                && displayName.equals(that.displayName)
+                && number.equals(that.number)
+                && Objects.equals(title, that.title)
+                && Objects.equals(url, that.url)
+                && Objects.equals(contributor, that.contributor)
+                && source.equals(that.source)
+                && target.equals(that.target)
+                && Objects.equals(lastBuildUrl, that.lastBuildUrl)
+                && Objects.equals(referenceBuildUrl, that.referenceBuildUrl)
+                && Objects.equals(referenceBuildName, that.referenceBuildName);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, displayName, number, title, url, contributor, source, target, lastBuildUrl,
+                lastBuildTimestamp, lastBuildNumber, lastBuildCompleted, referenceBuildUrl, referenceBuildName);
+    }
+}
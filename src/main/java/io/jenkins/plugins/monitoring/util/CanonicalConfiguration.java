@@ -0,0 +1,30 @@
+package io.jenkins.plugins.monitoring.util;
+
+/**
+ * A json configuration of the dashboard, that has been validated against the schema, in canonical form together
+ * with its hash. Create instances with {@link PortletUtils#validateConfiguration(String)}, so a configuration is
+ * parsed only once.
+ */
+public final class CanonicalConfiguration {
+    private final String config;
+    private final String hash;
+
+    /**
+     * Creates a new instance of {@link CanonicalConfiguration}.
+     *
+     * @param config
+     *              the configuration in canonical form.
+     */
+    CanonicalConfiguration(final String config) {
+        this.config = config;
+        this.hash = ConfigurationUtils.hash(config);
+    }
+
+    public String getConfig() {
+        return config;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+}
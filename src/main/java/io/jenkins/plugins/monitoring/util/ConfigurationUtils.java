@@ -0,0 +1,215 @@
+package io.jenkins.plugins.monitoring.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import hudson.Util;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A utility class for the json configurations of the dashboard. Configurations are stored in a canonical form
+ * (compact json with sorted keys), so two configurations are equal, if and only if their hashes are equal.
+ */
+public final class ConfigurationUtils {
+    private static final Logger LOGGER = Logger.getLogger(ConfigurationUtils.class.getName());
+
+    private static final String[] ATTRIBUTES = {"width", "height", "color"};
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+    private ConfigurationUtils() {
+        // make checkstyle happy.
+    }
+
+    /**
+     * Converts the configuration to its canonical form: compact json with sorted keys.
+     *
+     * @param configuration
+     *              the configuration as json.
+     *
+     * @return
+     *              the canonical configuration or the configuration itself, if it can't be parsed.
+     */
+    public static String canonicalize(final String configuration) {
+        try {
+            return MAPPER.writeValueAsString(MAPPER.readValue(configuration, Object.class));
+        }
+        catch (JsonProcessingException exception) {
+            LOGGER.log(Level.SEVERE, "Json could not be parsed: ", exception);
+            return configuration;
+        }
+    }
+
+    /**
+     * Converts a parsed configuration to its canonical form, without parsing it again.
+     *
+     * @param configuration
+     *              the parsed configuration.
+     *
+     * @return
+     *              the canonical configuration or the configuration itself, if it can't be written.
+     */
+    public static String canonicalize(final JSONArray configuration) {
+        try {
+            return MAPPER.writeValueAsString(configuration.toList());
+        }
+        catch (JsonProcessingException exception) {
+            LOGGER.log(Level.SEVERE, "Json could not be written: ", exception);
+            return configuration.toString();
+        }
+    }
+
+    /**
+     * Creates the hash of a canonical configuration.
+     *
+     * @param configuration
+     *              the configuration in canonical form.
+     *
+     * @return
+     *              the hash of the configuration.
+     */
+    public static String hash(final String configuration) {
+        return Util.getDigestOf(configuration);
+    }
+
+    /**
+     * Compares to json nodes, if they are equals.
+     *
+     * @param s1
+     *          the first json node as string.
+     *
+     * @param s2
+     *          the second json node as string.
+     *
+     * @return
+     *          true, if both are equals, else false.
+     */
+    public static boolean areJsonNodesEquals(final String s1, final String s2) {
+        try {
+            return MAPPER.readTree(s1).equals(MAPPER.readTree(s2));
+        }
+        catch (JsonProcessingException exception) {
+            LOGGER.log(Level.SEVERE, "Json could not be parsed: ", exception);
+        }
+
+        return false;
+    }
+
+    /**
+     * Applies patches to a configuration. Duplicate portlets of the configuration are removed before, so
+     * each id refers to exactly one portlet. Supported operations are:
+     * <ul>
+     *     <li>{@code {"op": "add", "id": "...", "index": 0, "width": 300, "height": 200, "color": "#000000"}}:
+     *     adds the portlet at the index or replaces it, if it already exists.</li>
+     *     <li>{@code {"op": "remove", "id": "..."}}: removes the portlet.</li>
+     *     <li>{@code {"op": "move", "id": "...", "index": 0}}: moves the portlet to the index.</li>
+     *     <li>{@code {"op": "resize", "id": "...", "width": 300, "height": 200}}: sets the size of the portlet.
+     *     Missing values are reset to the preferred size.</li>
+     * </ul>
+     *
+     * @param configuration
+     *              the configuration to patch.
+     *
+     * @param patches
+     *              the patches to apply in order.
+     *
+     * @return
+     *              the patched configuration.
+     *
+     * @throws org.json.JSONException
+     *              if a patch is malformed.
+     *
+     * @throws IllegalArgumentException
+     *              if the operation of a patch is unknown.
+     */
+    public static JSONArray applyPatches(final JSONArray configuration, final JSONArray patches) {
+        List<JSONObject> portlets = new ArrayList<>();
+        Set<String> ids = new HashSet<>();
+
+        for (int i = 0; i < configuration.length(); i++) {
+            JSONObject portlet = configuration.getJSONObject(i);
+
+            if (ids.add(portlet.getString("id"))) {
+                portlets.add(portlet);
+            }
+        }
+
+        for (int i = 0; i < patches.length(); i++) {
+            JSONObject patch = patches.getJSONObject(i);
+            String op = patch.getString("op");
+            String id = patch.getString("id");
+            int index = indexOf(portlets, id);
+
+            switch (op) {
+                case "add":
+                    JSONObject portlet = new JSONObject().put("id", id);
+
+                    for (String attribute : ATTRIBUTES) {
+                        if (patch.has(attribute)) {
+                            portlet.put(attribute, patch.get(attribute));
+                        }
+                    }
+
+                    if (index >= 0) {
+                        portlets.remove(index);
+                    }
+
+                    portlets.add(getIndex(patch, portlets.size()), portlet);
+                    break;
+                case "remove":
+                    if (index >= 0) {
+                        portlets.remove(index);
+                    }
+                    break;
+                case "move":
+                    if (index >= 0) {
+                        JSONObject moved = portlets.remove(index);
+                        portlets.add(getIndex(patch, portlets.size()), moved);
+                    }
+                    break;
+                case "resize":
+                    if (index >= 0) {
+                        setOrRemove(portlets.get(index), patch, "width");
+                        setOrRemove(portlets.get(index), patch, "height");
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown patch operation: " + op);
+            }
+        }
+
+        return new JSONArray(portlets);
+    }
+
+    private static int indexOf(final List<JSONObject> portlets, final String id) {
+        for (int i = 0; i < portlets.size(); i++) {
+            if (id.equals(portlets.get(i).getString("id"))) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private static int getIndex(final JSONObject patch, final int size) {
+        return Math.max(0, Math.min(patch.optInt("index", size), size));
+    }
+
+    private static void setOrRemove(final JSONObject portlet, final JSONObject patch, final String attribute) {
+        if (patch.has(attribute)) {
+            portlet.put(attribute, patch.get(attribute));
+        }
+        else {
+            portlet.remove(attribute);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package io.jenkins.plugins.monitoring.util;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import hudson.model.Run;
+import jenkins.util.SystemProperties;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * A bounded cache of the rendered content of {@link io.jenkins.plugins.monitoring.MonitorPortlet portlets}, that
+ * are {@link io.jenkins.plugins.monitoring.MonitorPortlet#isCacheable() cacheable}. The fragments are keyed by
+ * run, portlet id, locale and the signature of the installed factories. The cache is bounded by the total size of
+ * the fragments, least recently used fragments are evicted first.
+ */
+public final class FragmentCache {
+    private static final long MAX_BYTES = SystemProperties.getLong(
+            FragmentCache.class.getName() + ".maxBytes", 16L * 1024 * 1024);
+
+    private static final Cache<String, String> FRAGMENTS = CacheBuilder.newBuilder()
+            .maximumWeight(MAX_BYTES)
+            .weigher((String key, String fragment) -> 2 * (key.length() + fragment.length()))
+            .build();
+
+    /**
+     * The renderings of running builds in flight.
+     */
+    private static final SingleFlight<String, String> RENDER_CALLS = new SingleFlight<>();
+
+    private FragmentCache() {
+        // make checkstyle happy.
+    }
+
+    /**
+     * Get the rendered fragment of a portlet or render it, if it is not cached yet. Concurrent requests for the
+     * same fragment wait for the first one, so each fragment is only rendered once. Fragments of running builds
+     * are never cached, but concurrent renderings are still shared.
+     *
+     * @param run
+     *              the run of the dashboard.
+     *
+     * @param portletId
+     *              the id of the portlet.
+     *
+     * @param locale
+     *              the locale of the request.
+     *
+     * @param renderer
+     *              renders the fragment.
+     *
+     * @return
+     *              the rendered fragment.
+     *
+     * @throws IOException
+     *              if the fragment could not be rendered.
+     */
+    public static String get(final Run<?, ?> run, final String portletId, final Locale locale,
+                             final Renderer renderer) throws IOException {
+        String key = createKey(run) + portletId + "|" + locale + "|" + PortletUtils.getFactorySignature();
+
+        if (run.isBuilding()) {
+            return RENDER_CALLS.execute(key, renderer::render);
+        }
+
+        try {
+            return FRAGMENTS.get(key, renderer::render);
+        }
+        catch (ExecutionException exception) {
+            Throwable cause = exception.getCause();
+            throw cause instanceof IOException
+                    ? (IOException) cause : new IOException("Fragment could not be rendered: ", cause);
+        }
+    }
+
+    /**
+     * Removes all fragments of a run, e.g. if the run has been deleted.
+     *
+     * @param run
+     *              the run to remove the fragments for.
+     */
+    public static void invalidate(final Run<?, ?> run) {
+        String prefix = createKey(run);
+        FRAGMENTS.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    private static String createKey(final Run<?, ?> run) {
+        return run.getExternalizableId() + "|";
+    }
+
+    /**
+     * Renders a fragment.
+     */
+    @FunctionalInterface
+    public interface Renderer {
+        /**
+         * Renders the fragment.
+         *
+         * @return
+         *              the rendered fragment.
+         *
+         * @throws IOException
+         *              if the fragment could not be rendered.
+         */
+        String render() throws IOException;
+    }
+}
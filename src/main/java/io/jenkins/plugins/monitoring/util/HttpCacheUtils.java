@@ -0,0 +1,154 @@
+package io.jenkins.plugins.monitoring.util;
+
+import hudson.Util;
+import hudson.model.Result;
+import hudson.model.Run;
+import jenkins.model.Jenkins;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+
+import javax.servlet.http.HttpServletResponse;
+import java.util.Arrays;
+
+/**
+ * A utility class for HTTP caching of the resources of completed runs. The validators (ETag and Last-Modified)
+ * are derived from the run, its completion state, the current user and the signature of the installed
+ * {@link io.jenkins.plugins.monitoring.MonitorPortletFactory factories}, so a resource is revalidated as soon as
+ * a factory is added, removed or updated. Resources, that are not bound to a run, may provide their own ETag.
+ */
+public final class HttpCacheUtils {
+    /**
+     * The responses depend on the permissions of the user, so they must not be stored by shared caches and
+     * must always be revalidated.
+     */
+    private static final String CACHE_CONTROL = "private, no-cache";
+
+    private HttpCacheUtils() {
+        // make checkstyle happy.
+    }
+
+    /**
+     * Sets the validators of a resource and checks if the client's copy is still valid. Resources of running
+     * builds are never cached.
+     *
+     * @param request
+     *              the current request.
+     *
+     * @param response
+     *              the current response.
+     *
+     * @param run
+     *              the run the resource belongs to.
+     *
+     * @param resource
+     *              the name of the resource, e.g. "portlet/my-portlet-id/content".
+     *
+     * @return
+     *              true, if the client's copy is still valid and a 304 has been sent, else false.
+     */
+    public static boolean isNotModified(final StaplerRequest request, final StaplerResponse response,
+                                        final Run<?, ?> run, final String resource) {
+        if (run.isBuilding()) {
+            preventCaching(response);
+            return false;
+        }
+
+        Result result = run.getResult();
+        String etag = "\"" + Util.getDigestOf(String.join("|", run.getExternalizableId(),
+                result == null ? "" : result.toString(), PortletUtils.getFactorySignature(), resource,
+                String.valueOf(request.getLocale()), getUser())) + "\"";
+        long lastModified = Math.max(run.getStartTimeInMillis() + run.getDuration(),
+                PortletUtils.getFactorySignatureTimestamp()) / 1000 * 1000;
+
+        response.setHeader("ETag", etag);
+        response.setDateHeader("Last-Modified", lastModified);
+        response.setHeader("Cache-Control", CACHE_CONTROL);
+        response.addHeader("Vary", "Accept-Language");
+
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        boolean notModified;
+
+        if (ifNoneMatch != null) {
+            notModified = matches(ifNoneMatch, etag);
+        }
+        else {
+            long ifModifiedSince = getDateHeader(request, "If-Modified-Since");
+            notModified = ifModifiedSince != -1 && ifModifiedSince >= lastModified;
+        }
+
+        if (notModified) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        }
+
+        return notModified;
+    }
+
+    /**
+     * Sets the ETag of a resource, that is derived from other state than a run, and checks if the client's copy
+     * is still valid.
+     *
+     * @param request
+     *              the current request.
+     *
+     * @param response
+     *              the current response.
+     *
+     * @param etag
+     *              the quoted ETag of the resource.
+     *
+     * @return
+     *              true, if the client's copy is still valid and a 304 has been sent, else false.
+     */
+    public static boolean isNotModified(final StaplerRequest request, final StaplerResponse response,
+                                        final String etag) {
+        response.setHeader("ETag", etag);
+        response.setHeader("Cache-Control", CACHE_CONTROL);
+        response.addHeader("Vary", "Accept-Language");
+
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        boolean notModified = ifNoneMatch != null && matches(ifNoneMatch, etag);
+
+        if (notModified) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        }
+
+        return notModified;
+    }
+
+    /**
+     * Prevents that a response is stored by any cache, e.g. for resources of running builds.
+     *
+     * @param response
+     *              the current response.
+     */
+    public static void preventCaching(final StaplerResponse response) {
+        response.setHeader("Cache-Control", "private, no-store");
+    }
+
+    /**
+     * Get the name of the current user, that is part of each ETag, so a user never gets a 304 for the copy of
+     * another user.
+     *
+     * @return
+     *              the name of the current user.
+     */
+    public static String getUser() {
+        return Jenkins.getAuthentication2().getName();
+    }
+
+    private static boolean matches(final String ifNoneMatch, final String etag) {
+        return "*".equals(ifNoneMatch.trim()) || Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .map(tag -> tag.startsWith("W/") ? tag.substring(2) : tag)
+                .anyMatch(etag::equals);
+    }
+
+    private static long getDateHeader(final StaplerRequest request, final String name) {
+        try {
+            return request.getDateHeader(name);
+        }
+        catch (IllegalArgumentException exception) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package io.jenkins.plugins.monitoring.util;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import hudson.Util;
+import jenkins.util.SystemProperties;
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.html.HtmlRenderer;
+
+/**
+ * A utility class to render the markdown description of pull requests. The parser and renderer are shared,
+ * the rendered html is cached by the hash of the description and concurrent renderings of the same description
+ * are coalesced.
+ */
+public final class MarkdownUtils {
+    /**
+     * The maximum number of characters of a description that are rendered.
+     */
+    static final int MAX_LENGTH = SystemProperties.getInteger(MarkdownUtils.class.getName() + ".maxLength", 65_536);
+
+    private static final long CACHE_SIZE = SystemProperties.getLong(
+            MarkdownUtils.class.getName() + ".cacheSize", 4L * 1024 * 1024);
+
+    private static final String TRUNCATED = "\n\n*The description has been truncated.*";
+
+    private static final Parser PARSER = Parser.builder().build();
+    private static final HtmlRenderer RENDERER = HtmlRenderer.builder().build();
+
+    /**
+     * The rendered descriptions, bounded by the total number of characters.
+     */
+    private static final Cache<String, String> CACHE = CacheBuilder.newBuilder()
+            .maximumWeight(CACHE_SIZE)
+            .weigher((String key, String html) -> key.length() + html.length())
+            .build();
+
+    /**
+     * The renderings in flight, so concurrent requests for the same description render it only once.
+     */
+    private static final SingleFlight<String, String> RENDER_CALLS = new SingleFlight<>();
+
+    private MarkdownUtils() {
+        // make checkstyle happy.
+    }
+
+    /**
+     * Renders the markdown as html. Descriptions longer than {@link #MAX_LENGTH} are truncated.
+     *
+     * @param markdown
+     *              the markdown to render.
+     *
+     * @return
+     *              the rendered html.
+     */
+    public static String render(final String markdown) {
+        String key = Util.getDigestOf(markdown);
+        String html = CACHE.getIfPresent(key);
+
+        if (html != null) {
+            return html;
+        }
+
+        return RENDER_CALLS.execute(key, () -> {
+            String rendered = RENDERER.render(PARSER.parse(truncate(markdown)));
+            CACHE.put(key, rendered);
+            return rendered;
+        });
+    }
+
+    private static String truncate(final String markdown) {
+        if (markdown.length() <= MAX_LENGTH) {
+            return markdown;
+        }
+
+        return markdown.substring(0, MAX_LENGTH) + TRUNCATED;
+    }
+}
@@ -0,0 +1,34 @@
+package io.jenkins.plugins.monitoring.util;
+
+import com.codahale.metrics.MetricRegistry;
+import jenkins.metrics.api.Metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the latency timers of the plugin in the registry of the metrics plugin. This class is only loaded by
+ * {@link MonitoringMetrics} if the optional metrics plugin is installed.
+ */
+final class MetricsRecorder {
+    /**
+     * The prefix of all metrics of this plugin.
+     */
+    static final String PREFIX = "pull-request-monitoring";
+
+    private MetricsRecorder() {
+        // make checkstyle happy.
+    }
+
+    /**
+     * Adds a duration to the timer with the given name.
+     *
+     * @param name
+     *              the name of the timer without prefix.
+     *
+     * @param nanos
+     *              the duration in nanoseconds.
+     */
+    static void update(final String name, final long nanos) {
+        Metrics.metricRegistry().timer(MetricRegistry.name(PREFIX, name)).update(nanos, TimeUnit.NANOSECONDS);
+    }
+}
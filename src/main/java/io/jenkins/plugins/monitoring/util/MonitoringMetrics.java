@@ -0,0 +1,107 @@
+package io.jenkins.plugins.monitoring.util;
+
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * A utility class to record the latency of the plugin's hot paths. The latencies are recorded as timers in the
+ * registry of the metrics plugin, if the optional metrics plugin is installed. Otherwise,
+ * nothing is recorded. Whether the metrics plugin is installed is checked again after
+ * {@link #CHECK_INTERVAL} seconds, so a plugin, that has been installed or loaded dynamically, is used as well.
+ *
+ * <p>The names of the timers are prefixed with {@link MetricsRecorder#PREFIX}, e.g.
+ * {@code pull-request-monitoring.factory.<class>}, {@code pull-request-monitoring.portlet.<id>},
+ * {@code pull-request-monitoring.javascript.<method>} or {@code pull-request-monitoring.save.<class>}.</p>
+ */
+public final class MonitoringMetrics {
+    private static final long CHECK_INTERVAL = SystemProperties.getLong(
+            MonitoringMetrics.class.getName() + ".checkInterval", 60L);
+
+    private static volatile boolean enabled;
+    private static volatile long nextCheck = System.nanoTime();
+
+    private MonitoringMetrics() {
+        // make checkstyle happy.
+    }
+
+    /**
+     * Records the time elapsed since the given start.
+     *
+     * @param name
+     *              the name of the timer, e.g. "portlet.my-portlet-id".
+     *
+     * @param startNanos
+     *              the start as returned by {@link System#nanoTime()}.
+     */
+    public static void record(final String name, final long startNanos) {
+        if (isEnabled()) {
+            MetricsRecorder.update(name, System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Records the time to get the value of the supplier.
+     *
+     * @param name
+     *              the name of the timer, e.g. "javascript.getConfiguration".
+     *
+     * @param supplier
+     *              the supplier to time.
+     *
+     * @param <T>
+     *              the type of the value.
+     *
+     * @return
+     *              the value of the supplier.
+     */
+    public static <T> T time(final String name, final Supplier<T> supplier) {
+        long start = System.nanoTime();
+
+        try {
+            return supplier.get();
+        }
+        finally {
+            record(name, start);
+        }
+    }
+
+    /**
+     * Records the time to run the runnable.
+     *
+     * @param name
+     *              the name of the timer, e.g. "javascript.resetMonitorConfiguration".
+     *
+     * @param runnable
+     *              the runnable to time.
+     */
+    public static void time(final String name, final Runnable runnable) {
+        long start = System.nanoTime();
+
+        try {
+            runnable.run();
+        }
+        finally {
+            record(name, start);
+        }
+    }
+
+    private static boolean isEnabled() {
+        long now = System.nanoTime();
+
+        if (now - nextCheck >= 0) {
+            Jenkins jenkins = Jenkins.getInstanceOrNull();
+
+            if (jenkins == null) {
+                return false;
+            }
+
+            enabled = jenkins.getPlugin("metrics") != null;
+            nextCheck = now + TimeUnit.SECONDS.toNanos(CHECK_INTERVAL);
+        }
+
+        return enabled;
+    }
+}
@@ -0,0 +1,103 @@
+package io.jenkins.plugins.monitoring.util;
+
+import io.jenkins.plugins.monitoring.MonitorPortlet;
+import io.jenkins.plugins.monitoring.MonitorPortletFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * All {@link MonitorPortlet} of one run, grouped by their {@link MonitorPortletFactory}.
+ */
+public final class PortletCatalog {
+    private final Map<MonitorPortletFactory, List<MonitorPortlet>> portletsByFactory;
+    private final List<MonitorPortlet> portlets;
+    private final Map<String, MonitorPortlet> portletsById;
+    private final List<String> failedFactories;
+
+    /**
+     * Creates a new {@link PortletCatalog}.
+     *
+     * @param portletsByFactory
+     *              the portlets of each factory, in the order of the factories.
+     *
+     * @param failedFactories
+     *              the display names of all factories that failed or timed out.
+     */
+    PortletCatalog(final Map<MonitorPortletFactory, List<MonitorPortlet>> portletsByFactory,
+                   final List<String> failedFactories) {
+        this.failedFactories = Collections.unmodifiableList(new ArrayList<>(failedFactories));
+        this.portletsByFactory = Collections.unmodifiableMap(new LinkedHashMap<>(portletsByFactory));
+
+        List<MonitorPortlet> all = new ArrayList<>();
+        Map<String, MonitorPortlet> byId = new LinkedHashMap<>();
+        portletsByFactory.values().forEach(list -> list.forEach(portlet -> {
+            all.add(portlet);
+            byId.putIfAbsent(portlet.getId(), portlet);
+        }));
+
+        this.portlets = Collections.unmodifiableList(all);
+        this.portletsById = Collections.unmodifiableMap(byId);
+    }
+
+    /**
+     * Get all portlets of all factories.
+     *
+     * @return
+     *          all available {@link MonitorPortlet}.
+     */
+    public List<MonitorPortlet> getPortlets() {
+        return portlets;
+    }
+
+    /**
+     * Get all portlets of one factory.
+     *
+     * @param factory
+     *          the factory to get the portlets for.
+     *
+     * @return
+     *          the portlets of the factory or an empty list, if the factory is unknown.
+     */
+    public List<MonitorPortlet> getPortlets(final MonitorPortletFactory factory) {
+        return portletsByFactory.getOrDefault(factory, Collections.emptyList());
+    }
+
+    /**
+     * Get a portlet by its id.
+     *
+     * @param id
+     *          the id of the portlet.
+     *
+     * @return
+     *          the {@link MonitorPortlet} as {@link Optional}.
+     */
+    public Optional<MonitorPortlet> findPortlet(final String id) {
+        return Optional.ofNullable(portletsById.get(id));
+    }
+
+    /**
+     * Get the display names of all factories, whose portlets are missing in this catalog, since the factory
+     * failed or did not respond in time.
+     *
+     * @return
+     *          the display names of the failed factories.
+     */
+    public List<String> getFailedFactories() {
+        return failedFactories;
+    }
+
+    /**
+     * Checks if all factories delivered their portlets.
+     *
+     * @return
+     *          true, if no factory failed, else false.
+     */
+    public boolean isComplete() {
+        return failedFactories.isEmpty();
+    }
+}
@@ -1,29 +1,116 @@
 package io.jenkins.plugins.monitoring.util;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.ExtensionList;
+import hudson.ExtensionListListener;
+import hudson.PluginManager;
+import hudson.PluginWrapper;
+import hudson.Util;
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
 import hudson.model.Run;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
 import io.jenkins.plugins.monitoring.MonitorPortlet;
 import io.jenkins.plugins.monitoring.MonitorPortletFactory;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
 import org.everit.json.schema.Schema;
+import org.everit.json.schema.ValidationException;
 import org.everit.json.schema.loader.SchemaLoader;
 import org.json.JSONArray;
+import org.json.JSONException;
 import org.json.JSONObject;
 import org.json.JSONTokener;
+import org.springframework.security.core.Authentication;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 /**
  * A utility class for the portlets.
  */
 public final class PortletUtils {
     private static final Logger LOGGER = Logger.getLogger(PortletUtils.class.getName());
+    private static final int CACHE_SIZE = SystemProperties.getInteger(PortletUtils.class.getName() + ".cacheSize", 100);
+
+    /**
+     * The catalogs of completed runs by the name of the user, they have been created for. Factories are invoked
+     * as the current user and may filter their portlets by permissions, so each user gets its own catalog.
+     * The runs are compared by identity. The portlets of the catalogs usually reference their run, so a cached
+     * run is never garbage collected, although it is weakly referenced: catalogs are only evicted once the cache
+     * exceeds {@link #CACHE_SIZE} runs, the least recently used first, or if the factories change.
+     */
+    private static final Cache<Run<?, ?>, ConcurrentMap<String, PortletCatalog>> CATALOGS = CacheBuilder.newBuilder()
+            .weakKeys()
+            .maximumSize(CACHE_SIZE)
+            .build();
+
+    /**
+     * The catalogs in flight, so concurrent requests for the same build invoke the factories only once.
+     */
+    private static final SingleFlight<String, PortletCatalog> CATALOG_CALLS = new SingleFlight<>();
+
+    private static final long LIVE_CATALOG_TTL = SystemProperties.getLong(
+            PortletUtils.class.getName() + ".liveCatalogTtl", 5_000L);
+
+    /**
+     * The catalogs of running builds by the name of the user, which expire after a short time. As for the
+     * {@link #CATALOGS}, the portlets keep their run reachable, so the catalogs are only evicted by expiry and size.
+     */
+    private static final Cache<Run<?, ?>, ConcurrentMap<String, PortletCatalog>> LIVE_CATALOGS = CacheBuilder
+            .newBuilder()
+            .weakKeys()
+            .maximumSize(CACHE_SIZE)
+            .expireAfterWrite(LIVE_CATALOG_TTL, TimeUnit.MILLISECONDS)
+            .build();
+
+    private static final SingleFlight<String, PortletCatalog> LIVE_CATALOG_CALLS = new SingleFlight<>();
+
+    private static final int FACTORY_THREADS = SystemProperties.getInteger(
+            PortletUtils.class.getName() + ".factoryThreads", 8);
+    private static final long FACTORY_TIMEOUT = SystemProperties.getLong(
+            PortletUtils.class.getName() + ".factoryTimeout", 10_000L);
+    private static final int FACTORY_QUEUE_SIZE = SystemProperties.getInteger(
+            PortletUtils.class.getName() + ".factoryQueueSize", 256);
+
+    /**
+     * The bounded pool to invoke all {@link MonitorPortletFactory} concurrently. Factories, that do not respond
+     * in time and ignore the interrupt, are abandoned and their worker is replaced, at most
+     * {@link #FACTORY_THREADS} times, see {@link FactoryCall}.
+     */
+    private static final ThreadPoolExecutor FACTORY_EXECUTOR = createFactoryExecutor();
+    private static int abandonedWorkers;
+
+    /**
+     * The signature of the installed factories. Reset each time the list of factories changes, the last
+     * signature is kept to preserve its timestamp, if the factories are still the same.
+     */
+    private static volatile FactorySignature factorySignature;
+    private static volatile FactorySignature lastFactorySignature;
 
     private PortletUtils() {
         // make checkstyle happy.
@@ -39,11 +126,7 @@ public final class PortletUtils {
      *          all available {@link MonitorPortlet}.
      */
     public static List<? extends MonitorPortlet> getAvailablePortlets(final Run<?, ?> build) {
-        return getFactories()
-                .stream()
-                .map(factory -> factory.getPortlets(build))
-                .flatMap(Collection::stream)
-                .collect(Collectors.toList());
+        return getPortletCatalog(build).getPortlets();
     }
 
     /**
@@ -70,12 +153,236 @@ public final class PortletUtils {
      */
     public static List<? extends MonitorPortlet> getAvailablePortletsForFactory(
             final Run<?, ?> build, final MonitorPortletFactory factory) {
-        return getFactories()
-                .stream()
-                .filter(fac -> fac.equals(factory))
-                .map(fac -> fac.getPortlets(build))
-                .flatMap(Collection::stream)
-                .collect(Collectors.toList());
+        return getPortletCatalog(build).getPortlets(factory);
+    }
+
+    /**
+     * Gets the {@link PortletCatalog} of a build for the current user. The catalog of a completed build does not
+     * change anymore and is therefore cached, the catalog of a running build is only cached for a short time, so
+     * the live dashboard picks up portlets that become available during the build. Concurrent calls of the same
+     * user for the same build share one computation.
+     *
+     * @param build
+     *         the build to get the catalog for.
+     *
+     * @return
+     *         the {@link PortletCatalog} of the build.
+     */
+    public static PortletCatalog getPortletCatalog(final Run<?, ?> build) {
+        String user = Jenkins.getAuthentication2().getName();
+        String key = build.getExternalizableId() + "|" + user;
+
+        if (build.isBuilding()) {
+            ConcurrentMap<String, PortletCatalog> live = getCatalogs(LIVE_CATALOGS, build);
+            PortletCatalog cached = live.get(user);
+
+            if (cached != null) {
+                return cached;
+            }
+
+            return LIVE_CATALOG_CALLS.execute(key, () -> {
+                PortletCatalog catalog = createPortletCatalog(build);
+                live.put(user, catalog);
+                return catalog;
+            });
+        }
+
+        ConcurrentMap<String, PortletCatalog> catalogs = getCatalogs(CATALOGS, build);
+        PortletCatalog cached = catalogs.get(user);
+
+        if (cached != null) {
+            return cached;
+        }
+
+        return CATALOG_CALLS.execute(key, () -> {
+            PortletCatalog present = catalogs.get(user);
+
+            if (present != null) {
+                return present;
+            }
+
+            PortletCatalog catalog = createPortletCatalog(build);
+
+            if (catalog.isComplete()) {
+                catalogs.put(user, catalog);
+            }
+
+            return catalog;
+        });
+    }
+
+    private static ConcurrentMap<String, PortletCatalog> getCatalogs(
+            final Cache<Run<?, ?>, ConcurrentMap<String, PortletCatalog>> cache, final Run<?, ?> build) {
+        return cache.asMap().computeIfAbsent(build, ignored -> new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Invalidates all cached {@link PortletCatalog}.
+     */
+    public static void invalidatePortletCatalogs() {
+        CATALOGS.invalidateAll();
+        LIVE_CATALOGS.invalidateAll();
+        factorySignature = null;
+    }
+
+    /**
+     * Get the signature of the installed {@link MonitorPortletFactory factories}: a digest of their classes and
+     * the versions of the plugins, that contribute them.
+     *
+     * @return
+     *         the signature.
+     */
+    public static String getFactorySignature() {
+        return getOrCreateFactorySignature().digest;
+    }
+
+    /**
+     * Get the time, when the signature of the installed {@link MonitorPortletFactory factories} has changed.
+     *
+     * @return
+     *         the time in milliseconds.
+     */
+    public static long getFactorySignatureTimestamp() {
+        return getOrCreateFactorySignature().timestamp;
+    }
+
+    private static FactorySignature getOrCreateFactorySignature() {
+        FactorySignature signature = factorySignature;
+
+        if (signature == null) {
+            PluginManager pluginManager = Jenkins.get().getPluginManager();
+            StringBuilder builder = new StringBuilder();
+
+            for (MonitorPortletFactory factory : getFactories()) {
+                PluginWrapper plugin = pluginManager.whichPlugin(factory.getClass());
+                builder.append(factory.getClass().getName())
+                        .append('@')
+                        .append(plugin == null ? Jenkins.VERSION : plugin.getVersion())
+                        .append(';');
+            }
+
+            String digest = Util.getDigestOf(builder.toString());
+            FactorySignature previous = lastFactorySignature;
+            signature = previous != null && previous.digest.equals(digest)
+                    ? previous : new FactorySignature(digest, System.currentTimeMillis());
+
+            lastFactorySignature = signature;
+            factorySignature = signature;
+        }
+
+        return signature;
+    }
+
+    /**
+     * Invalidates the cached catalogs each time the list of {@link MonitorPortletFactory} changes,
+     * e.g. if a plugin is loaded dynamically.
+     */
+    @Initializer(after = InitMilestone.EXTENSIONS_AUGMENTED)
+    public static void listenForFactoryChanges() {
+        ExtensionList.lookup(MonitorPortletFactory.class).addListener(new ExtensionListListener() {
+            @Override
+            public void onChange() {
+                invalidatePortletCatalogs();
+            }
+        });
+    }
+
+    /**
+     * Invokes all factories concurrently. Each factory has {@link #FACTORY_TIMEOUT} milliseconds to deliver
+     * its portlets, factories that fail or time out are skipped and reported in the catalog. The factories are
+     * invoked as the current user and the catalog is not cached: use {@link #getPortletCatalog(Run)} for the
+     * dashboard of a user and this method for catalogs of other authentications, e.g. as system.
+     *
+     * @param build
+     *          the build to get the portlets for.
+     *
+     * @return
+     *          the {@link PortletCatalog} of the build.
+     */
+    public static PortletCatalog createPortletCatalog(final Run<?, ?> build) {
+        Authentication authentication = Jenkins.getAuthentication2();
+        Map<MonitorPortletFactory, FactoryCall> calls = new LinkedHashMap<>();
+        List<String> failedFactories = new ArrayList<>();
+
+        for (MonitorPortletFactory factory : getFactories()) {
+            FactoryCall call = new FactoryCall(factory, build, authentication);
+
+            try {
+                call.future = FACTORY_EXECUTOR.submit(call);
+                calls.put(factory, call);
+            }
+            catch (RejectedExecutionException exception) {
+                failedFactories.add(factory.getDisplayName());
+                LOGGER.log(Level.WARNING, String.format("Factory '%s' could not be scheduled for %s: ",
+                        factory.getDisplayName(), build), exception);
+            }
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(FACTORY_TIMEOUT);
+        Map<MonitorPortletFactory, List<MonitorPortlet>> portlets = new LinkedHashMap<>();
+
+        for (Map.Entry<MonitorPortletFactory, FactoryCall> entry : calls.entrySet()) {
+            MonitorPortletFactory factory = entry.getKey();
+            FactoryCall call = entry.getValue();
+
+            try {
+                portlets.put(factory, new ArrayList<>(
+                        call.future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)));
+            }
+            catch (TimeoutException exception) {
+                call.abandon();
+                failedFactories.add(factory.getDisplayName());
+                LOGGER.log(Level.WARNING, String.format("Factory '%s' did not respond within %d ms for %s: ",
+                        factory.getDisplayName(), FACTORY_TIMEOUT, build), exception);
+            }
+            catch (ExecutionException exception) {
+                failedFactories.add(factory.getDisplayName());
+                LOGGER.log(Level.WARNING, String.format("Factory '%s' failed for %s: ",
+                        factory.getDisplayName(), build), exception.getCause());
+            }
+            catch (InterruptedException exception) {
+                call.abandon();
+                failedFactories.add(factory.getDisplayName());
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        return new PortletCatalog(portlets, failedFactories);
+    }
+
+    private static ThreadPoolExecutor createFactoryExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(FACTORY_THREADS, FACTORY_THREADS,
+                60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(FACTORY_QUEUE_SIZE),
+                new NamingThreadFactory(new DaemonThreadFactory(), "PullRequestMonitoring.factories"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Adds a worker to the pool for a worker, that is blocked by an abandoned factory call.
+     */
+    private static synchronized void replaceAbandonedWorker() {
+        abandonedWorkers++;
+
+        if (abandonedWorkers > FACTORY_THREADS) {
+            LOGGER.log(Level.SEVERE, String.format("%d factory calls are blocked, the worker is not replaced",
+                    abandonedWorkers));
+            return;
+        }
+
+        FACTORY_EXECUTOR.setMaximumPoolSize(FACTORY_THREADS + abandonedWorkers);
+        FACTORY_EXECUTOR.setCorePoolSize(FACTORY_THREADS + abandonedWorkers);
+    }
+
+    /**
+     * Removes the additional worker, once the abandoned factory call has returned.
+     */
+    private static synchronized void releaseAbandonedWorker() {
+        abandonedWorkers--;
+
+        int size = FACTORY_THREADS + Math.min(abandonedWorkers, FACTORY_THREADS);
+        FACTORY_EXECUTOR.setCorePoolSize(size);
+        FACTORY_EXECUTOR.setMaximumPoolSize(size);
     }
 
     /**
@@ -88,7 +395,20 @@ public final class PortletUtils {
      *              the json array configuration as string.
      */
     public static String getDefaultPortletsAsConfiguration(Run<?, ?> build) {
-        return new JSONArray(getAvailablePortlets(build)
+        return getDefaultPortletsAsConfiguration(getPortletCatalog(build));
+    }
+
+    /**
+     * Get all the default portlets of a catalog as configuration.
+     *
+     * @param catalog
+     *              the catalog to get the portlets from.
+     *
+     * @return
+     *              the json array configuration as string.
+     */
+    public static String getDefaultPortletsAsConfiguration(final PortletCatalog catalog) {
+        return new JSONArray(catalog.getPortlets()
                 .stream()
                 .filter(MonitorPortlet::isDefault)
                 .map(portlet -> new JSONObject(String.format("{\"id\": \"%s\"}", portlet.getId())))
@@ -106,16 +426,147 @@ public final class PortletUtils {
      *              true, if the configuration is valid, else false.
      */
     public static boolean isValidConfiguration(@NonNull final String configuration) {
-        try (InputStream schemaStream = PortletUtils.class.getResourceAsStream("/schema.json")) {
-            JSONObject jsonSchema = new JSONObject(new JSONTokener(schemaStream));
-            JSONArray jsonSubject = new JSONArray(configuration);
-            Schema schema = SchemaLoader.load(jsonSchema);
-            schema.validate(jsonSubject);
-            return true;
+        parseConfiguration(configuration);
+        return true;
+    }
+
+    /**
+     * Parses the json configuration and validates it against the schema.
+     *
+     * @param configuration
+     *              the configuration as json
+     *
+     * @return
+     *              the parsed configuration.
+     *
+     * @throws JSONException
+     *              if the configuration is not a json array.
+     *
+     * @throws ValidationException
+     *              if the configuration does not match the schema.
+     */
+    public static JSONArray parseConfiguration(@NonNull final String configuration) {
+        JSONArray jsonSubject = new JSONArray(configuration);
+        SchemaHolder.SCHEMA.validate(jsonSubject);
+        return jsonSubject;
+    }
+
+    /**
+     * Parses the json configuration, validates it against the schema and converts it to its canonical form.
+     * The configuration is parsed only once.
+     *
+     * @param configuration
+     *              the configuration as json
+     *
+     * @return
+     *              the validated configuration in canonical form with its hash.
+     *
+     * @throws JSONException
+     *              if the configuration is not a json array.
+     *
+     * @throws ValidationException
+     *              if the configuration does not match the schema.
+     */
+    public static CanonicalConfiguration validateConfiguration(@NonNull final String configuration) {
+        return validateConfiguration(new JSONArray(configuration));
+    }
+
+    /**
+     * Validates the parsed configuration against the schema and converts it to its canonical form.
+     *
+     * @param configuration
+     *              the parsed configuration, e.g. a patched configuration.
+     *
+     * @return
+     *              the validated configuration in canonical form with its hash.
+     *
+     * @throws ValidationException
+     *              if the configuration does not match the schema.
+     */
+    public static CanonicalConfiguration validateConfiguration(@NonNull final JSONArray configuration) {
+        SchemaHolder.SCHEMA.validate(configuration);
+        return new CanonicalConfiguration(ConfigurationUtils.canonicalize(configuration));
+    }
+
+    /**
+     * The call of one factory as the user, that requested the catalog. A call, that does not respond in time, is
+     * cancelled and abandoned. If the factory ignores the interrupt and keeps running, its worker is replaced
+     * until the call finally returns, so hanging factories do not starve the pool.
+     */
+    private static final class FactoryCall implements Callable<Collection<MonitorPortlet>> {
+        private static final int QUEUED = 0;
+        private static final int RUNNING = 1;
+        private static final int DONE = 2;
+        private static final int ABANDONED = 3;
+
+        private final MonitorPortletFactory factory;
+        private final Run<?, ?> build;
+        private final Authentication authentication;
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+        private Future<Collection<MonitorPortlet>> future;
+
+        FactoryCall(final MonitorPortletFactory factory, final Run<?, ?> build,
+                    final Authentication authentication) {
+            this.factory = factory;
+            this.build = build;
+            this.authentication = authentication;
+        }
+
+        @Override
+        public Collection<MonitorPortlet> call() {
+            if (!state.compareAndSet(QUEUED, RUNNING)) {
+                return Collections.emptyList();
+            }
+
+            try (ACLContext ignored = ACL.as2(authentication)) {
+                return MonitoringMetrics.time("factory." + factory.getClass().getName(),
+                        () -> factory.getPortlets(build));
+            }
+            finally {
+                if (!state.compareAndSet(RUNNING, DONE)) {
+                    releaseAbandonedWorker();
+                }
+            }
+        }
+
+        void abandon() {
+            future.cancel(true);
+
+            if (state.compareAndSet(RUNNING, ABANDONED)) {
+                replaceAbandonedWorker();
+            }
+            else {
+                state.compareAndSet(QUEUED, ABANDONED);
+            }
+        }
+    }
+
+    /**
+     * The digest of the installed factories and the time it has been created.
+     */
+    private static final class FactorySignature {
+        private final String digest;
+        private final long timestamp;
+
+        FactorySignature(final String digest, final long timestamp) {
+            this.digest = digest;
+            this.timestamp = timestamp;
         }
-        catch (IOException exception) {
-            LOGGER.log(Level.SEVERE, "Invalid Configuration found: ", exception);
-            return false;
+    }
+
+    /**
+     * Holds the schema of the configuration. The schema is loaded and compiled only once, when it is first used.
+     */
+    private static final class SchemaHolder {
+        private static final Schema SCHEMA = loadSchema();
+
+        private static Schema loadSchema() {
+            try (InputStream schemaStream = PortletUtils.class.getResourceAsStream("/schema.json")) {
+                return SchemaLoader.load(new JSONObject(new JSONTokener(schemaStream)));
+            }
+            catch (IOException exception) {
+                throw new IllegalStateException("Schema could not be loaded: ", exception);
+            }
         }
     }
 }
@@ -1,5 +1,7 @@
 package io.jenkins.plugins.monitoring.util;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import hudson.model.Job;
 import jenkins.scm.api.SCMHead;
 import jenkins.scm.api.mixin.ChangeRequestSCMHead2;
@@ -10,12 +12,21 @@ import org.jenkinsci.plugins.workflow.multibranch.BranchJobProperty;
  */
 public final class PullRequestUtils {
 
+    /**
+     * The classification of jobs. Jobs are weakly referenced, so deleted jobs are evicted as well. An entry
+     * is invalidated each time the job is saved, e.g. when branch indexing updates its {@link BranchJobProperty}.
+     */
+    private static final Cache<Job<?, ?>, Boolean> PULL_REQUESTS = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build();
+
     private PullRequestUtils() {
         // make checkstyle happy.
     }
 
     /**
-     * Checks whether a given {@link Job} is a pull request or not.
+     * Checks whether a given {@link Job} is a pull request or not. The result is cached until the job
+     * is saved again, see {@link #invalidate(Job)}.
      *
      * @param job
      *              the job to analyse.
@@ -24,6 +35,28 @@ public final class PullRequestUtils {
      *              true if the job is a pull request, else false.
      */
     public static boolean isPullRequest(Job<?, ?> job) {
+        Boolean cached = PULL_REQUESTS.getIfPresent(job);
+
+        if (cached != null) {
+            return cached;
+        }
+
+        boolean pullRequest = classify(job);
+        PULL_REQUESTS.put(job, pullRequest);
+        return pullRequest;
+    }
+
+    /**
+     * Invalidates the cached classification of a job, e.g. if its properties have been changed.
+     *
+     * @param job
+     *              the job to invalidate.
+     */
+    public static void invalidate(Job<?, ?> job) {
+        PULL_REQUESTS.invalidate(job);
+    }
+
+    private static boolean classify(Job<?, ?> job) {
         BranchJobProperty branchJobProperty = job.getProperty(BranchJobProperty.class);
 
         if (branchJobProperty == null) {
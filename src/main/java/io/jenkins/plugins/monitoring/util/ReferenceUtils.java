@@ -0,0 +1,206 @@
+package io.jenkins.plugins.monitoring.util;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import edu.hm.hafner.util.FilteredLog;
+import hudson.model.Run;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import io.jenkins.plugins.forensics.reference.ReferenceBuild;
+import io.jenkins.plugins.forensics.reference.ReferenceFinder;
+import io.jenkins.plugins.monitoring.MonitoringReferenceAction;
+import jenkins.util.SystemProperties;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A utility class for the reference builds of pull requests.
+ */
+public final class ReferenceUtils {
+    private static final Logger LOGGER = Logger.getLogger(ReferenceUtils.class.getName());
+
+    /**
+     * The searches in flight, so concurrent requests for the same run search the reference build only once.
+     */
+    private static final SingleFlight<String, Optional<Run<?, ?>>> REFERENCE_CALLS = new SingleFlight<>();
+
+    private static final long MISS_TIMEOUT = SystemProperties.getLong(
+            ReferenceUtils.class.getName() + ".missTimeout", TimeUnit.MINUTES.toSeconds(5));
+
+    /**
+     * The ids of the runs without reference build, so a missing reference build is not searched on each access.
+     * The misses are dropped once a target branch has been built, see {@link #invalidateMisses()}.
+     */
+    private static final Cache<String, Boolean> MISSES = CacheBuilder.newBuilder()
+            .maximumSize(SystemProperties.getInteger(ReferenceUtils.class.getName() + ".maxMisses", 1000))
+            .expireAfterWrite(MISS_TIMEOUT, TimeUnit.SECONDS)
+            .build();
+
+    private static final int REFERENCE_QUEUE_SIZE = SystemProperties.getInteger(
+            ReferenceUtils.class.getName() + ".queueSize", 1000);
+
+    /**
+     * The pool to record the reference builds of completed runs, so the {@link hudson.model.listeners.RunListener}
+     * does not wait for the search and the write of the run.
+     */
+    private static final ExecutorService REFERENCE_EXECUTOR = createReferenceExecutor();
+
+    private ReferenceUtils() {
+        // make checkstyle happy.
+    }
+
+    /**
+     * Get the reference build of a run. The recorded {@link MonitoringReferenceAction} is used if present,
+     * otherwise the reference build is searched. Concurrent searches for the same run are coalesced. The result
+     * of the search is not recorded, so reading the reference build never writes the run. If no reference build
+     * has been found, the miss is cached until a target branch has been built or the miss timed out.
+     *
+     * @param run
+     *          the run to get the reference build for.
+     *
+     * @return
+     *          the reference build as {@link Optional}.
+     */
+    public static Optional<Run<?, ?>> getReferenceBuild(final Run<?, ?> run) {
+        Optional<Run<?, ?>> recorded = getRecordedReferenceBuild(run);
+
+        if (recorded.isPresent()) {
+            return recorded;
+        }
+
+        String id = run.getExternalizableId();
+
+        if (MISSES.getIfPresent(id) != null) {
+            return Optional.empty();
+        }
+
+        return REFERENCE_CALLS.execute(id, () -> {
+            Optional<Run<?, ?>> current = getRecordedReferenceBuild(run);
+
+            if (current.isPresent()) {
+                return current;
+            }
+
+            Optional<Run<?, ?>> referenceBuild = findReferenceBuild(run);
+
+            if (!referenceBuild.isPresent()) {
+                MISSES.put(id, Boolean.TRUE);
+            }
+
+            return referenceBuild;
+        });
+    }
+
+    /**
+     * Drops the cached misses of reference builds, e.g. if a target branch has been built, so the build may now
+     * be the reference build of a pull request, that had none before.
+     */
+    public static void invalidateMisses() {
+        MISSES.invalidateAll();
+    }
+
+    /**
+     * Schedules the search of the reference build of a completed run. The reference build is recorded as
+     * {@link MonitoringReferenceAction}, if one has been found. If none has been found, nothing is recorded, so
+     * the reference build is searched again on the next access, e.g. once the target branch has been built.
+     *
+     * @param run
+     *          the completed run to record the reference build for.
+     *
+     * @return
+     *          a future, that is completed once the reference build has been recorded or the search failed.
+     */
+    public static CompletableFuture<Void> scheduleReferenceBuild(final Run<?, ?> run) {
+        try {
+            return CompletableFuture.runAsync(() -> recordReferenceBuild(run), REFERENCE_EXECUTOR);
+        }
+        catch (RejectedExecutionException exception) {
+            LOGGER.log(Level.WARNING, "Reference build could not be scheduled: ", exception);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    /**
+     * Searches the reference build of a run and records it as {@link MonitoringReferenceAction}, if one has been
+     * found.
+     *
+     * @param run
+     *          the run to record the reference build for.
+     */
+    public static void recordReferenceBuild(final Run<?, ?> run) {
+        findReferenceBuild(run).ifPresent(referenceBuild -> {
+            record(run, referenceBuild);
+            MISSES.invalidate(run.getExternalizableId());
+        });
+    }
+
+    /**
+     * Get the recorded reference build of a run. Runs of previous versions may have recorded, that no reference
+     * build has been found; these records are ignored.
+     *
+     * @param run
+     *          the run to get the recorded reference build for.
+     *
+     * @return
+     *          the reference build as {@link Optional}.
+     */
+    public static Optional<Run<?, ?>> getRecordedReferenceBuild(final Run<?, ?> run) {
+        MonitoringReferenceAction action = run.getAction(MonitoringReferenceAction.class);
+        return action == null ? Optional.empty() : action.getReferenceBuild();
+    }
+
+    /**
+     * Searches the reference build of a run. If the job discovers its reference build, e.g. by the step
+     * 'discoverReferenceBuild', the run has a {@link ReferenceBuild} record and the {@link ReferenceFinder} is
+     * asked, so the discovered reference build always wins. Otherwise the build of the target branch for the
+     * target revision of the pull request is looked up in the {@link TargetBranchIndex}, so the history of the
+     * target branch is never walked for runs without such record.
+     *
+     * @param run
+     *          the run to find the reference build for.
+     *
+     * @return
+     *          the reference build as {@link Optional}.
+     */
+    private static Optional<Run<?, ?>> findReferenceBuild(final Run<?, ?> run) {
+        if (run.getAction(ReferenceBuild.class) == null) {
+            return TargetBranchIndex.findReferenceBuild(run);
+        }
+
+        Optional<Run<?, ?>> referenceBuild = new ReferenceFinder().findReference(run, new FilteredLog(""));
+
+        if (referenceBuild.isPresent()) {
+            return referenceBuild;
+        }
+
+        return TargetBranchIndex.findReferenceBuild(run);
+    }
+
+    private static void record(final Run<?, ?> run, final Run<?, ?> referenceBuild) {
+        run.addOrReplaceAction(new MonitoringReferenceAction(referenceBuild.getExternalizableId()));
+
+        try {
+            run.save();
+        }
+        catch (IOException exception) {
+            LOGGER.log(Level.SEVERE, "Run could not be saved: ", exception);
+        }
+    }
+
+    private static ExecutorService createReferenceExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1,
+                60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(REFERENCE_QUEUE_SIZE),
+                new NamingThreadFactory(new DaemonThreadFactory(), "PullRequestMonitoring.references"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
@@ -0,0 +1,92 @@
+package io.jenkins.plugins.monitoring.util;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.init.Terminator;
+import hudson.model.Saveable;
+import jenkins.util.SystemProperties;
+import jenkins.util.Timer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A utility class to persist {@link Saveable} objects write-behind. All save requests for the same object
+ * within {@link #DELAY} milliseconds are coalesced into one single write. Pending writes are flushed when
+ * Jenkins shuts down.
+ */
+public final class SaveScheduler {
+    private static final Logger LOGGER = Logger.getLogger(SaveScheduler.class.getName());
+
+    /**
+     * The delay in milliseconds before a scheduled save is written to disk.
+     */
+    static final long DELAY = SystemProperties.getLong(SaveScheduler.class.getName() + ".delay", 5000L);
+
+    private static final Set<Saveable> PENDING = ConcurrentHashMap.newKeySet();
+
+    private SaveScheduler() {
+        // make checkstyle happy.
+    }
+
+    /**
+     * Schedules a save of the given {@link Saveable}. If a save for this object is already pending,
+     * the request is merged into the pending one.
+     *
+     * @param saveable
+     *              the object to save.
+     */
+    public static void schedule(@NonNull final Saveable saveable) {
+        if (!PENDING.add(saveable)) {
+            return;
+        }
+
+        try {
+            Timer.get().schedule(() -> flush(saveable), DELAY, TimeUnit.MILLISECONDS);
+        }
+        catch (RejectedExecutionException exception) {
+            flush(saveable);
+        }
+    }
+
+    /**
+     * Writes the given {@link Saveable} immediately, if a save is pending.
+     *
+     * @param saveable
+     *              the object to save.
+     */
+    public static void flush(@NonNull final Saveable saveable) {
+        if (PENDING.remove(saveable)) {
+            save(saveable);
+        }
+    }
+
+    /**
+     * Writes all pending saves. Called by Jenkins on shutdown.
+     */
+    @Terminator
+    public static void flushAll() {
+        for (Saveable saveable : new ArrayList<>(PENDING)) {
+            flush(saveable);
+        }
+    }
+
+    private static void save(final Saveable saveable) {
+        long start = System.nanoTime();
+
+        try {
+            saveable.save();
+        }
+        catch (IOException exception) {
+            LOGGER.log(Level.SEVERE, "Object could not be saved: ", exception);
+        }
+        finally {
+            MonitoringMetrics.record("save." + saveable.getClass().getSimpleName(), start);
+        }
+    }
+}
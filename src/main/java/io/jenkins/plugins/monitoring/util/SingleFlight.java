@@ -0,0 +1,90 @@
+package io.jenkins.plugins.monitoring.util;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Coalesces concurrent computations of the same key: the first caller computes the value, all callers that
+ * arrive while the computation is in flight wait for and share its result. The result is not kept once the
+ * computation has been completed, caching is up to the caller.
+ *
+ * @param <K>
+ *          the type of the keys.
+ *
+ * @param <V>
+ *          the type of the values.
+ */
+public final class SingleFlight<K, V> {
+    private final ConcurrentMap<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+
+    /**
+     * Computes the value of a key or waits for the computation that is already in flight. If the computation
+     * in flight fails, the waiting callers compute the value on their own, so each caller sees its own failure.
+     *
+     * @param key
+     *              the key of the computation.
+     *
+     * @param computation
+     *              computes the value.
+     *
+     * @param <E>
+     *              the type of the exception the computation may throw.
+     *
+     * @return
+     *              the computed value.
+     *
+     * @throws E
+     *              if the computation fails.
+     */
+    public <E extends Exception> V execute(final K key, final Computation<V, E> computation) throws E {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = calls.putIfAbsent(key, call);
+
+        if (inFlight != null) {
+            try {
+                return inFlight.join();
+            }
+            catch (CancellationException exception) {
+                return computation.compute();
+            }
+        }
+
+        try {
+            V value = computation.compute();
+            call.complete(value);
+            return value;
+        }
+        finally {
+            if (!call.isDone()) {
+                call.cancel(false);
+            }
+
+            calls.remove(key, call);
+        }
+    }
+
+    /**
+     * Computes a value.
+     *
+     * @param <V>
+     *          the type of the value.
+     *
+     * @param <E>
+     *          the type of the exception the computation may throw.
+     */
+    @FunctionalInterface
+    public interface Computation<V, E extends Exception> {
+        /**
+         * Computes the value.
+         *
+         * @return
+         *              the computed value.
+         *
+         * @throws E
+         *              if the value could not be computed.
+         */
+        V compute() throws E;
+    }
+}
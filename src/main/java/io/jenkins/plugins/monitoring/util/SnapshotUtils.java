@@ -0,0 +1,114 @@
+package io.jenkins.plugins.monitoring.util;
+
+import hudson.model.Run;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import io.jenkins.plugins.monitoring.MonitorPortlet;
+import io.jenkins.plugins.monitoring.MonitoringSnapshotAction;
+import jenkins.util.SystemProperties;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A utility class to create the snapshots of the portlets of a completed run in the background,
+ * see {@link MonitorPortlet#createSnapshot()}.
+ */
+public final class SnapshotUtils {
+    private static final Logger LOGGER = Logger.getLogger(SnapshotUtils.class.getName());
+    private static final int SNAPSHOT_THREADS = SystemProperties.getInteger(
+            SnapshotUtils.class.getName() + ".threads", 2);
+    private static final int SNAPSHOT_QUEUE_SIZE = SystemProperties.getInteger(
+            SnapshotUtils.class.getName() + ".queueSize", 100);
+
+    /**
+     * The bounded pool to create the snapshots. If the queue is full, the snapshots of further runs are dropped,
+     * since the portlets fall back to compute their data.
+     */
+    private static final ExecutorService SNAPSHOT_EXECUTOR = createSnapshotExecutor();
+
+    private SnapshotUtils() {
+        // make checkstyle happy.
+    }
+
+    /**
+     * Schedules the creation of the snapshots of a completed run. The snapshots are not created, if too many
+     * runs are already waiting for their snapshots.
+     *
+     * @param run
+     *              the completed run.
+     */
+    public static void scheduleSnapshots(final Run<?, ?> run) {
+        try {
+            SNAPSHOT_EXECUTOR.execute(() -> createSnapshots(run));
+        }
+        catch (RejectedExecutionException exception) {
+            LOGGER.log(Level.WARNING, String.format("Snapshots of %s dropped, too many runs are waiting: ", run),
+                    exception);
+        }
+    }
+
+    /**
+     * Creates the snapshots of all portlets of a completed run and attaches them as
+     * {@link MonitoringSnapshotAction} to the run. Portlets, that fail to create a snapshot, are skipped.
+     * The portlets are created as system, so their catalog is not shared with the catalogs of the users. Since
+     * the snapshots are shown to all users, only {@link MonitorPortlet#isCacheable() cacheable} portlets, whose
+     * content does not depend on the current user, are asked for a snapshot.
+     *
+     * @param run
+     *              the completed run.
+     */
+    public static void createSnapshots(final Run<?, ?> run) {
+        Map<String, Object> snapshots = new HashMap<>();
+
+        try (ACLContext ignored = ACL.as2(ACL.SYSTEM2)) {
+            for (MonitorPortlet portlet : PortletUtils.createPortletCatalog(run).getPortlets()) {
+                if (!portlet.isCacheable()) {
+                    continue;
+                }
+
+                try {
+                    Object snapshot = MonitoringMetrics.time("snapshot." + portlet.getId(), portlet::createSnapshot);
+
+                    if (snapshot != null) {
+                        snapshots.put(portlet.getId(), snapshot);
+                    }
+                }
+                catch (RuntimeException exception) {
+                    LOGGER.log(Level.WARNING, String.format("Snapshot of portlet '%s' failed for %s: ",
+                            portlet.getId(), run), exception);
+                }
+            }
+        }
+
+        if (snapshots.isEmpty()) {
+            return;
+        }
+
+        try {
+            run.addOrReplaceAction(new MonitoringSnapshotAction(snapshots));
+            run.save();
+        }
+        catch (IOException exception) {
+            LOGGER.log(Level.SEVERE, "Snapshots could not be saved: ", exception);
+        }
+    }
+
+    private static ExecutorService createSnapshotExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(SNAPSHOT_THREADS, SNAPSHOT_THREADS,
+                60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(SNAPSHOT_QUEUE_SIZE),
+                new NamingThreadFactory(new DaemonThreadFactory(), "PullRequestMonitoring.snapshots"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
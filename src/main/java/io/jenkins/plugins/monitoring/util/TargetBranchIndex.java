@@ -0,0 +1,214 @@
+package io.jenkins.plugins.monitoring.util;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import hudson.model.Item;
+import hudson.model.Job;
+import hudson.model.Run;
+import jenkins.branch.MultiBranchProject;
+import jenkins.scm.api.SCMRevision;
+import jenkins.scm.api.SCMRevisionAction;
+import jenkins.scm.api.mixin.ChangeRequestSCMRevision;
+import jenkins.util.SystemProperties;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An index of all builds of the target branches of one {@link MultiBranchProject}, keyed by branch name and
+ * revision. All pull requests of the project share the index to look up their reference build: the build of the
+ * target branch for the target revision of the pull request. The index is created on first use and then kept
+ * up to date by the {@link io.jenkins.plugins.monitoring.MonitoringRunListener}. Only the latest builds of each
+ * branch are indexed, see {@link #MAX_BUILDS_PER_BRANCH}.
+ */
+public final class TargetBranchIndex {
+    private static final int MAX_BUILDS_PER_BRANCH = SystemProperties.getInteger(
+            TargetBranchIndex.class.getName() + ".maxBuildsPerBranch", 100);
+
+    private static final Cache<MultiBranchProject<?, ?>, IndexHolder> INDICES = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build();
+
+    private final Map<String, BranchBuilds> buildsByBranch = new ConcurrentHashMap<>();
+
+    private TargetBranchIndex() {
+        // use forProject
+    }
+
+    /**
+     * Get the index of a {@link MultiBranchProject}. The index is created from the build history of all
+     * branches of the project on first access. Only the first access of the same project waits for the index
+     * to be created, other projects are not blocked.
+     *
+     * @param project
+     *          the project to get the index for.
+     *
+     * @return
+     *          the {@link TargetBranchIndex} of the project.
+     */
+    public static TargetBranchIndex forProject(final MultiBranchProject<?, ?> project) {
+        return INDICES.asMap().computeIfAbsent(project, ignored -> new IndexHolder()).get(project);
+    }
+
+    /**
+     * Adds a completed build of a branch to the index of its project, if the index has already been created.
+     *
+     * @param run
+     *          the completed build.
+     */
+    public static void update(final Run<?, ?> run) {
+        getProject(run).flatMap(TargetBranchIndex::getIfCreated).ifPresent(index -> index.add(run));
+    }
+
+    /**
+     * Removes a deleted build from the index of its project, if the index has already been created.
+     *
+     * @param run
+     *          the deleted build.
+     */
+    public static void remove(final Run<?, ?> run) {
+        String id = run.getExternalizableId();
+        getProject(run).flatMap(TargetBranchIndex::getIfCreated).ifPresent(index -> index.buildsByBranch.values()
+                .forEach(builds -> builds.remove(id)));
+    }
+
+    /**
+     * Looks up the reference build of a pull request build, i.e. the build of the target branch that has been
+     * built for the target revision of the pull request.
+     *
+     * @param run
+     *          the build of the pull request.
+     *
+     * @return
+     *          the reference build as {@link Optional} or {@code Optional.empty()} if no such build is indexed.
+     */
+    public static Optional<Run<?, ?>> findReferenceBuild(final Run<?, ?> run) {
+        Optional<MultiBranchProject<?, ?>> project = getProject(run);
+        SCMRevision revision = getRevision(run);
+
+        if (!project.isPresent() || !(revision instanceof ChangeRequestSCMRevision)) {
+            return Optional.empty();
+        }
+
+        SCMRevision target = ((ChangeRequestSCMRevision<?>) revision).getTarget();
+        BranchBuilds builds = forProject(project.get()).buildsByBranch.get(target.getHead().getName());
+
+        return Optional.ofNullable(builds == null ? null : builds.get(target)).map(Run::fromExternalizableId);
+    }
+
+    private static Optional<TargetBranchIndex> getIfCreated(final MultiBranchProject<?, ?> project) {
+        return Optional.ofNullable(INDICES.getIfPresent(project)).map(holder -> holder.index);
+    }
+
+    private static TargetBranchIndex create(final MultiBranchProject<?, ?> project) {
+        TargetBranchIndex index = new TargetBranchIndex();
+
+        for (Item item : project.getItems()) {
+            Job<?, ?> job = (Job<?, ?>) item;
+
+            if (PullRequestUtils.isPullRequest(job)) {
+                continue;
+            }
+
+            List<Run<?, ?>> builds = new ArrayList<>(job.getBuilds().limit(MAX_BUILDS_PER_BRANCH));
+            Collections.reverse(builds);
+
+            for (Run<?, ?> run : builds) {
+                if (!run.isBuilding()) {
+                    index.add(run);
+                }
+            }
+        }
+
+        return index;
+    }
+
+    /**
+     * Adds a build to the index. Builds have to be added from oldest to newest: the newest build of a revision
+     * wins and the oldest build of a branch is dropped first.
+     *
+     * @param run
+     *          the build to add.
+     */
+    private void add(final Run<?, ?> run) {
+        SCMRevision revision = getRevision(run);
+
+        if (revision == null || revision instanceof ChangeRequestSCMRevision) {
+            return;
+        }
+
+        buildsByBranch.computeIfAbsent(revision.getHead().getName(), name -> new BranchBuilds())
+                .put(revision, run.getExternalizableId());
+    }
+
+    private static SCMRevision getRevision(final Run<?, ?> run) {
+        SCMRevisionAction action = run.getAction(SCMRevisionAction.class);
+        return action == null ? null : action.getRevision();
+    }
+
+    private static Optional<MultiBranchProject<?, ?>> getProject(final Run<?, ?> run) {
+        Object parent = run.getParent().getParent();
+        return parent instanceof MultiBranchProject
+                ? Optional.of((MultiBranchProject<?, ?>) parent) : Optional.empty();
+    }
+
+    /**
+     * The builds of one branch by revision, limited to the {@link #MAX_BUILDS_PER_BRANCH} latest builds.
+     */
+    private static final class BranchBuilds {
+        private final Map<SCMRevision, String> builds = new LinkedHashMap<SCMRevision, String>() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<SCMRevision, String> eldest) {
+                return size() > MAX_BUILDS_PER_BRANCH;
+            }
+        };
+
+        synchronized void put(final SCMRevision revision, final String id) {
+            builds.remove(revision);
+            builds.put(revision, id);
+        }
+
+        @CheckForNull
+        synchronized String get(final SCMRevision revision) {
+            return builds.get(revision);
+        }
+
+        synchronized void remove(final String id) {
+            builds.values().removeIf(id::equals);
+        }
+    }
+
+    /**
+     * Creates the index of one project lazily. The holder is created without blocking, so creating the index of
+     * one project only blocks the accesses of the same project.
+     */
+    private static final class IndexHolder {
+        @CheckForNull
+        private volatile TargetBranchIndex index;
+
+        TargetBranchIndex get(final MultiBranchProject<?, ?> project) {
+            TargetBranchIndex result = index;
+
+            if (result == null) {
+                synchronized (this) {
+                    result = index;
+
+                    if (result == null) {
+                        result = create(project);
+                        index = result;
+                    }
+                }
+            }
+
+            return result;
+        }
+    }
+}
@@ -8,7 +8,47 @@
 /* global jQuery3, run, Muuri, JSONTree */
 (function ($) {
     let grid;
+
+    /**
+     * The configuration as acknowledged by the server and its version. Changes of the grid are sent
+     * as patches against this configuration.
+     */
     let configuration;
+    let version = 0;
+    let synced = true;
+
+    /**
+     * The delay in milliseconds to wait for further layout changes before the patches are sent.
+     */
+    const UPDATE_DELAY = 500;
+    let updateTimer;
+    let updating = false;
+    let updatePending = false;
+
+    /**
+     * The time in milliseconds to wait for the response to the patches. The proxy of the server does not report
+     * failed requests, so a request without response in time is considered as failed and the changes are sent
+     * again. Responses of requests, that have been considered as failed, are ignored.
+     */
+    const PATCH_TIMEOUT = 10000;
+    const RETRY_DELAY = 5000;
+    let patchRequest = 0;
+
+    /**
+     * The interval in milliseconds to poll the live state while the build is running, and the last known data
+     * versions of the available portlets.
+     */
+    const LIVE_INTERVAL = 5000;
+    let dataVersions = {};
+
+    /**
+     * The ids of the configured portlets, that are not available for the run, and whether portlets, that could not
+     * be rendered, are kept in the configuration. They are only kept, if a factory failed or did not respond in
+     * time, or the build is still running, since their portlets may be available later.
+     */
+    let unavailable = [];
+    let failedFactories = [];
+    let retainUnavailable = false;
 
     /**
      * Trigger window resize event to resize echarts.
@@ -22,39 +62,139 @@
     }
 
     /**
-     * Gets the current dashboard configuration as json.
+     * Gets the current dashboard configuration. Values that are equal to the defaults of the portlet are omitted.
      *
-     * @returns {string}
-     *          the dashboard configuration as json string.
+     * @returns {Array}
+     *          the dashboard configuration as array of portlets.
      */
-    function getCurrentConfig() {
+    function getCurrentPortlets() {
 
-        let plugins = grid.getItems()
+        return grid.getItems()
             .filter((item) => item.isActive())
             .map(function(item) {
-                const id = item.getElement().getAttribute('data-id');
-                let pluginConfig = `{"id":"${id}"`;
+                const element = item.getElement();
+                const portlet = {id: element.getAttribute('data-id')};
 
                 const width = Math.round(item.getWidth());
-                if (String(width) !== item.getElement().getAttribute('default-width')) {
-                    pluginConfig += `,"width":${width}`;
+                if (String(width) !== element.getAttribute('default-width')) {
+                    portlet.width = width;
                 }
 
                 const height = Math.round(item.getHeight());
-                if (String(height) !== item.getElement().getAttribute('default-height')) {
-                    pluginConfig += `,"height":${height}`;
+                if (String(height) !== element.getAttribute('default-height')) {
+                    portlet.height = height;
                 }
 
-                const color = item.getElement().getAttribute('data-color');
-                if (color !== item.getElement().getAttribute('default-color')) {
-                    pluginConfig += `,"color":"${color}"`;
+                const color = element.getAttribute('data-color');
+                if (color !== element.getAttribute('default-color')) {
+                    portlet.color = color;
+                }
+
+                return portlet;
+            });
+
+    }
+
+    /**
+     * Gets the current dashboard configuration as json.
+     *
+     * @returns {string}
+     *          the dashboard configuration as json string.
+     */
+    function getCurrentConfig() {
+        return JSON.stringify(getCurrentPortlets());
+    }
+
+    /**
+     * Creates the patches to transform one configuration into another one. The patches are applied in order
+     * on the server, so the indices of 'add' and 'move' refer to the configuration after all previous patches.
+     * All portlets of the base configuration, that are missing in the current one, are removed, see
+     * {@link retainUnrendered} for the portlets, that are kept even if they are not part of the grid.
+     *
+     * @param base
+     *          the configuration as acknowledged by the server.
+     *
+     * @param current
+     *          the current configuration of the grid.
+     *
+     * @returns {Array}
+     *          the patches, empty if both configurations are equal.
+     */
+    function createPatches(base, current) {
+
+        const patches = [];
+        const currentIds = current.map((portlet) => portlet.id);
+        const order = [];
+
+        base.forEach((portlet) => {
+            if (order.includes(portlet.id)) {
+                return;
+            }
+
+            if (currentIds.includes(portlet.id)) {
+                order.push(portlet.id);
+            } else {
+                patches.push({op: 'remove', id: portlet.id});
+            }
+        });
+
+        current.forEach((portlet, index) => {
+            const previous = base.find((p) => p.id === portlet.id);
+
+            if (previous === undefined || previous.color !== portlet.color) {
+                patches.push(Object.assign({op: 'add', index: index}, portlet));
+
+                const position = order.indexOf(portlet.id);
+                if (position >= 0) {
+                    order.splice(position, 1);
                 }
-                pluginConfig += "}";
+                order.splice(index, 0, portlet.id);
+
+                return;
+            }
+
+            if (order[index] !== portlet.id) {
+                patches.push({op: 'move', id: portlet.id, index: index});
+                order.splice(order.indexOf(portlet.id), 1);
+                order.splice(index, 0, portlet.id);
+            }
+
+            if (previous.width !== portlet.width || previous.height !== portlet.height) {
+                patches.push({op: 'resize', id: portlet.id, width: portlet.width, height: portlet.height});
+            }
+        });
+
+        return patches;
+
+    }
+
+    /**
+     * Adds the portlets of the base configuration, that could not be rendered, to the current configuration at
+     * their previous position. Portlets, that are not available for the run, are only kept, if a factory failed or
+     * did not respond in time or the build is still running, otherwise they are removed from the configuration of
+     * the user. Portlets, that are available, but could not be loaded, are always kept.
+     *
+     * @param base
+     *          the configuration as acknowledged by the server.
+     *
+     * @param current
+     *          the current configuration of the grid.
+     *
+     * @returns {Array}
+     *          the current configuration including all portlets, that are not part of the grid.
+     */
+    function retainUnrendered(base, current) {
 
-                return pluginConfig;
-            }).join(', ');
+        const retained = current.slice();
 
-        return `[${plugins}]`;
+        base.forEach((portlet, index) => {
+            if (findItem(portlet.id) === undefined && !retained.some((p) => p.id === portlet.id)
+                && (retainUnavailable || !unavailable.includes(portlet.id))) {
+                retained.splice(Math.min(index, retained.length), 0, portlet);
+            }
+        });
+
+        return retained;
 
     }
 
@@ -106,34 +246,194 @@
     }
 
     /**
-     *  Updates the user property with the current grid config form dashboard.
+     * Shows the configuration and its sync state in the config panel.
+     *
+     * @param config
+     *          the configuration as json string.
+     */
+    function renderConfig(config) {
+
+        $('#config').html(JSONTree.create(JSON.parse(config)));
+        $('#resetDescription').html(String(synced));
+        $('#sourceDescription').html(synced ? 'Default' : 'User-Specific');
+
+    }
+
+    /**
+     * Applies a configuration state of the server.
+     *
+     * @param state
+     *          the state with version, sync state and configuration.
+     */
+    function applyState(state) {
+        configuration = state.config;
+        version = state.version;
+        synced = state.synced;
+    }
+
+    /**
+     *  Schedules an update of the user property. Layout changes in quick succession (e.g. while dragging or
+     *  resizing) are coalesced into one request.
      */
     function updateConfig() {
 
-        const config = getCurrentConfig();
-        run.updateMonitorConfiguration(config);
+        clearTimeout(updateTimer);
+        updateTimer = setTimeout(sendPatches, UPDATE_DELAY);
 
-        $('#config').html(JSONTree.create(JSON.parse(config)));
+    }
 
-        run.isMonitorConfigurationSynced(function(result) {
-            $('#resetDescription').html(result.responseText);
+    /**
+     *  Sends the changes of the grid since the last acknowledged configuration as patches. If the configuration
+     *  has been changed in the meantime, e.g. in another browser tab, or the patches have been rejected as
+     *  invalid, the grid is reloaded with the configuration of the server. If the request fails, the changes
+     *  are sent again later.
+     */
+    function sendPatches() {
 
-            if (result.responseText === 'true') {
-                $('#sourceDescription').html('Default');
-            } else {
-                $('#sourceDescription').html('User-Specific');
+        if (updating) {
+            updatePending = true;
+            return;
+        }
+
+        const current = retainUnrendered(configuration, getCurrentPortlets());
+        const patches = createPatches(configuration, current);
+
+        if (patches.length === 0) {
+            renderConfig(JSON.stringify(current));
+            return;
+        }
+
+        updating = true;
+        const request = ++patchRequest;
+        const timeout = setTimeout(function () {
+            patchFailed(request);
+        }, PATCH_TIMEOUT);
+
+        run.patchMonitorConfiguration(version, JSON.stringify(patches), function(result) {
+            if (request !== patchRequest) {
+                return;
+            }
+
+            clearTimeout(timeout);
+            updating = false;
+
+            let state;
+            try {
+                state = JSON.parse(result.responseJSON);
+            }
+            catch (e) {
+                patchFailed(request);
+                return;
+            }
+
+            applyState(state);
+
+            if (state.conflict || state.error) {
+                if (state.error) {
+                    console.warn('Dashboard configuration rejected: ' + state.error);
+                }
+
+                updatePending = false;
+                resetInput();
+                loadGrid();
+                return;
             }
 
+            renderConfig(JSON.stringify(state.config));
+
+            if (updatePending) {
+                updatePending = false;
+                sendPatches();
+            }
         });
+
     }
 
     /**
-     * Set the default configuration in config modal.
+     *  Handles a failed request of patches. The last acknowledged configuration is still the base of the next
+     *  patches, so the changes are computed and sent again after a delay.
+     *
+     * @param request
+     *          the number of the failed request.
+     */
+    function patchFailed(request) {
+
+        if (request !== patchRequest) {
+            return;
+        }
+
+        patchRequest++;
+        updating = false;
+        updatePending = false;
+
+        clearTimeout(updateTimer);
+        updateTimer = setTimeout(sendPatches, RETRY_DELAY);
+
+    }
+
+    /**
+     * Applies the live state of the running build. Only the portlets, whose data version has changed, are reloaded
+     * and portlets of the configuration, that became available, are added to the grid. Once the build has been
+     * completed, all portlets are reloaded and the polling stops.
+     *
+     * @param live
+     *          the live state with the building flag and the data versions of the available portlets.
+     */
+    function applyLiveState(live) {
+
+        const previous = dataVersions;
+        dataVersions = live.portlets;
+        unavailable = unavailable.filter((id) => !dataVersions.hasOwnProperty(id));
+
+        if (!live.building) {
+            retainUnavailable = failedFactories.length > 0;
+            $('#live-indicator').remove();
+            grid.getItems().forEach(loadContent);
+            loadGrid();
+            return;
+        }
+
+        grid.getItems().forEach((item) => {
+            const id = item.getElement().getAttribute('data-id');
+
+            if (previous.hasOwnProperty(id) && dataVersions.hasOwnProperty(id) && previous[id] !== dataVersions[id]) {
+                loadContent(item);
+            }
+        });
+
+        if (configuration.some((portlet) => !previous.hasOwnProperty(portlet.id)
+            && dataVersions.hasOwnProperty(portlet.id))) {
+            loadGrid();
+        }
+
+        setTimeout(pollLiveState, LIVE_INTERVAL);
+
+    }
+
+    /**
+     * Polls the live state of the running build. Polling is paused while the page is not visible.
      */
-    function setDefaultConfig() {
-        run.resolvePortlets(function(defaultConfig) {
-            $('#defaultConfig').html(JSONTree.create(JSON.parse(defaultConfig.responseJSON)));
+    function pollLiveState() {
+
+        if (document.hidden) {
+            setTimeout(pollLiveState, LIVE_INTERVAL);
+            return;
+        }
+
+        run.getLiveState(function(result) {
+            applyLiveState(JSON.parse(result.responseJSON));
         });
+
+    }
+
+    /**
+     * Set the default configuration in config modal.
+     *
+     * @param defaultConfig
+     *          the default configuration.
+     */
+    function setDefaultConfig(defaultConfig) {
+        $('#defaultConfig').html(JSONTree.create(defaultConfig));
     }
 
     /**
@@ -181,16 +481,118 @@
 
     }
 
+    /**
+     * Finds the grid item of a portlet.
+     *
+     * @param id
+     *          the id of the portlet.
+     *
+     * @returns {*|undefined}
+     *          the grid item or undefined, if the portlet is not part of the grid.
+     */
+    function findItem(id) {
+        return grid.getItems().find((item) => item.getElement().getAttribute('data-id') === id);
+    }
+
+    /**
+     * Loads the content of a portlet asynchronously and replaces the placeholder of the grid item.
+     *
+     * @param item
+     *          the grid item to load the content for.
+     *
+     * @returns {Promise}
+     *          a promise that resolves when the content is loaded.
+     */
+    function loadContent(item) {
+
+        const element = item.getElement();
+        const content = element.querySelector('.plugin-card-content');
+        const url = grid.getElement().getAttribute('data-url') + 'portlet/'
+            + encodeURIComponent(element.getAttribute('data-id')) + '/content';
+
+        return fetch(url, {credentials: 'same-origin'})
+            .then((response) => response.ok ? response.text() : Promise.reject(new Error(response.statusText)))
+            .then((html) => {
+                // Use jQuery to execute the scripts of the portlet
+                $(content).html(html);
+                resize();
+            })
+            .catch(() => {
+                $(content).text(content.getAttribute('data-error'));
+            });
+
+    }
+
+    /**
+     * Ensures that the portlet is part of the grid. Portlets that are not part of the current configuration are
+     * not rendered into the page, so they are loaded from the server and added (hidden) to the grid on demand.
+     *
+     * @param id
+     *          the id of the portlet.
+     *
+     * @returns {Promise}
+     *          a promise that resolves with the grid item of the portlet.
+     */
+    function ensurePortlet(id) {
+
+        const existing = findItem(id);
+        if (existing !== undefined) {
+            return Promise.resolve(existing);
+        }
+
+        const gridElement = grid.getElement();
+        const url = gridElement.getAttribute('data-url') + 'portlet/' + encodeURIComponent(id) + '/';
+
+        return fetch(url, {credentials: 'same-origin'})
+            .then((response) => response.ok ? response.text() : Promise.reject(new Error(response.statusText)))
+            .then((html) => {
+                // Another request may have added the portlet in the meantime
+                const item = findItem(id);
+                if (item !== undefined) {
+                    return item;
+                }
+
+                // Append with jQuery to execute the scripts of the portlet
+                $(gridElement).append(html);
+
+                const element = [...gridElement.querySelectorAll('.muuri-item')]
+                    .find((e) => e.getAttribute('data-id') === id);
+                element.classList.remove('hidden');
+
+                const added = grid.add(element, {active: false, layout: false})[0];
+                loadContent(added);
+
+                return added;
+            });
+
+    }
+
     /**
      *  Event listener for 'Add item' button. Adds a new item to grid, based
      *  on user selection of the corresponding modal.
      */
     function addItem() {
 
+        const plugin = $('#monitor').children("option:selected").val();
+
+        ensurePortlet(plugin).then(() => showItem(plugin));
+
+        const modal = document.getElementById('modalClose');
+        modal.click();
+
+    }
+
+    /**
+     * Shows the portlet with the values of the modal.
+     *
+     * @param plugin
+     *          the id of the portlet to show.
+     */
+    function showItem(plugin) {
+
         const color = document.querySelector('input[name="color"]').value;
         const width = document.querySelector('input[name="width"]').value;
         const height = document.querySelector('input[name="height"]').value;
-        const plugin = $('#monitor').children("option:selected").val();
 
         let plugins = grid.getItems().filter(function(item) {
             const dataId = item.getElement().getAttribute('data-id');
@@ -216,16 +618,29 @@
         changeInput(plugin, 'true');
         grid.show(plugins);
 
-        const modal = document.getElementById('modalClose');
-        modal.click();
-
     }
 
     /**
-     *  Load the grid slots.
+     *  Load the grid slots. Portlets of the configuration, which are not part of the grid, are loaded first.
+     *  Portlets, that are not available for the run, are skipped.
+     *
+     * @returns {Promise}
+     *          a promise that resolves when the grid is loaded.
      */
     function loadGrid() {
 
+        return Promise.all(configuration
+            .filter((portlet) => !unavailable.includes(portlet.id))
+            .map((portlet) => ensurePortlet(portlet.id).catch(() => undefined)))
+            .then(showConfiguredItems);
+
+    }
+
+    /**
+     *  Shows all portlets of the configuration and hides all others.
+     */
+    function showConfiguredItems() {
+
         // Hide all elements
         grid.hide(grid.getItems(), {instant: true});
 
@@ -238,7 +653,7 @@
         let plugins = [];
 
         configuration.forEach((portlet) => {
-            let plugin = grid.getItems().find((item) => item.getElement().getAttribute('data-id') === portlet.id);
+            let plugin = findItem(portlet.id);
 
             if (plugin !== undefined) {
                 const color = portlet.hasOwnProperty("color") ?
@@ -289,11 +704,10 @@
      */
     function resetConfiguration() {
         run.resetMonitorConfiguration(function() {
-            run.getConfiguration(function(config) {
-                configuration = JSON.parse(config.responseJSON);
+            run.getConfigurationState(function(result) {
+                applyState(JSON.parse(result.responseJSON));
                 resetInput();
-                loadGrid();
-                updateConfig();
+                loadGrid().then(updateConfig);
             });
         });
     }
@@ -353,22 +767,30 @@
      * Entry point for grid initialisation. Initialise the grid, load the grid slots and updates the
      * config panel on the right side of build action.
      *
-     * @param config
-     *          the default configuration from Jenkinsfile.
+     * @param bootstrap
+     *          the bootstrap of the dashboard, which is embedded in the page: the configuration state of the user,
+     *          the default configuration, the unavailable portlets, the failed factories and the live state of the
+     *          build.
      */
-    function initDashboard(config) {
+    function initDashboard(bootstrap) {
 
-        configuration = JSON.parse(config);
+        applyState(bootstrap);
+        unavailable = bootstrap.unavailable;
+        failedFactories = bootstrap.failedFactories;
+        retainUnavailable = failedFactories.length > 0 || bootstrap.live.building;
         initGrid();
-        loadGrid();
-        updateConfig();
-        setDefaultConfig();
+        grid.getItems().forEach(loadContent);
+        loadGrid().then(updateConfig);
+        setDefaultConfig(bootstrap.defaultConfig);
+
+        dataVersions = bootstrap.live.portlets;
+        if (bootstrap.live.building) {
+            setTimeout(pollLiveState, LIVE_INTERVAL);
+        }
 
     }
 
-    run.getConfiguration(function(config) {
-        initDashboard(config.responseJSON);
-    });
+    initDashboard(JSON.parse(document.querySelector('.grid').getAttribute('data-bootstrap')));
 
     /**
      * Form validation.
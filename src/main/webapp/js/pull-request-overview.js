@@ -0,0 +1,140 @@
+/**
+ * Keeps the cards of the pull request overview up to date without reloading the page. The server is polled
+ * with the version of the shown cards and sends only the cards, that have been changed since, or a 304, if
+ * nothing has been changed.
+ *
+ * @author Simon Symhoven
+ */
+(function () {
+
+    /**
+     * The interval in milliseconds to poll the changes of the overview.
+     */
+    const REFRESH_INTERVAL = 10000;
+
+    const cards = document.getElementById('pull-request-cards');
+    let version = cards.getAttribute('data-version');
+    let etag = cards.getAttribute('data-etag');
+
+    /**
+     * Schedules the next poll.
+     */
+    function schedule() {
+        setTimeout(refresh, REFRESH_INTERVAL);
+    }
+
+    /**
+     * Gets the cards of the overview by the name of their pull requests.
+     *
+     * @param element
+     *          the element that contains the cards.
+     *
+     * @returns {Map}
+     *          the cards by name.
+     */
+    function getCards(element) {
+        return new Map([...element.children]
+            .filter((card) => card.hasAttribute('data-name'))
+            .map((card) => [card.getAttribute('data-name'), card]));
+    }
+
+    /**
+     * Applies an update of the server: replaces the changed cards, removes the cards, that are no longer
+     * part of the page, and sorts the cards. If the pagination changes, the page is reloaded.
+     *
+     * @param html
+     *          the update as html.
+     *
+     * @returns {boolean}
+     *          true, if the update has been applied, false, if some cards are missing and all cards must be
+     *          requested.
+     */
+    function applyUpdate(html) {
+
+        const template = document.createElement('template');
+        template.innerHTML = html.trim();
+        const update = template.content.firstElementChild;
+
+        const total = Number(update.getAttribute('data-total'));
+        if (update.getAttribute('data-page-count') !== cards.getAttribute('data-page-count')
+            || (total === 0) !== (Number(cards.getAttribute('data-total')) === 0)) {
+            window.location.reload();
+            return true;
+        }
+
+        const order = JSON.parse(update.getAttribute('data-order'));
+        const current = getCards(cards);
+
+        getCards(update).forEach((card, name) => {
+            if (current.has(name)) {
+                current.get(name).remove();
+            }
+            current.set(name, card);
+        });
+
+        current.forEach((card, name) => {
+            if (!order.includes(name)) {
+                card.remove();
+                current.delete(name);
+            }
+        });
+
+        order.filter((name) => current.has(name)).forEach((name) => cards.appendChild(current.get(name)));
+
+        cards.setAttribute('data-total', String(total));
+        document.getElementById('pull-request-total').textContent = update.getAttribute('data-total-text');
+
+        // Pull requests, that moved into the page unchanged, are not part of the update
+        if (order.some((name) => !current.has(name))) {
+            return false;
+        }
+
+        version = update.getAttribute('data-version');
+        return true;
+
+    }
+
+    /**
+     * Polls the changes of the overview since the version of the shown cards. Polling is paused while the page
+     * is not visible.
+     *
+     * @param full
+     *          true, if all cards of the page should be requested.
+     */
+    function refresh(full) {
+
+        if (document.hidden) {
+            schedule();
+            return;
+        }
+
+        const parameters = new URLSearchParams(window.location.search);
+        const headers = {};
+
+        if (full !== true) {
+            parameters.set('since', version);
+            headers['If-None-Match'] = etag;
+        }
+
+        fetch(cards.getAttribute('data-url') + '?' + parameters.toString(),
+            {credentials: 'same-origin', cache: 'no-store', headers: headers})
+            .then((response) => {
+                if (response.status === 304) {
+                    return true;
+                }
+
+                if (!response.ok) {
+                    return Promise.reject(new Error(response.statusText));
+                }
+
+                etag = response.headers.get('ETag');
+                return response.text().then(applyUpdate);
+            })
+            .then((applied) => applied ? schedule() : refresh(true))
+            .catch(schedule);
+
+    }
+
+    schedule();
+
+})();
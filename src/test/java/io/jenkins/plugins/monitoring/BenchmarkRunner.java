@@ -0,0 +1,47 @@
+package io.jenkins.plugins.monitoring;
+
+import jenkins.benchmark.jmh.BenchmarkFinder;
+import org.junit.Test;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs all JMH benchmarks of the plugin, e.g. {@link ConfigurationBenchmark} and {@link DashboardBenchmark}.
+ * The runner is only executed with the benchmark profile: {@code mvn test -Pbenchmark}. The results,
+ * including the allocation rate of each benchmark, are written to {@code target/jmh-report.json}.
+ *
+ * @author Simon Symhoven
+ */
+public class BenchmarkRunner {
+
+    /**
+     * Finds and runs all classes annotated with {@link jenkins.benchmark.jmh.JmhBenchmark}.
+     *
+     * @throws Exception
+     *              if a benchmark fails.
+     */
+    @Test
+    public void runJmhBenchmarks() throws Exception {
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .mode(Mode.AverageTime)
+                .timeUnit(TimeUnit.MICROSECONDS)
+                .warmupIterations(2)
+                .measurementIterations(5)
+                .threads(1)
+                .forks(1)
+                .shouldFailOnError(true)
+                .shouldDoGC(true)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("target/jmh-report.json");
+
+        new BenchmarkFinder(getClass()).findBenchmarks(options);
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,165 @@
+package io.jenkins.plugins.monitoring;
+
+import io.jenkins.plugins.monitoring.util.PortletUtils;
+import jenkins.benchmark.jmh.JmhBenchmark;
+import org.json.JSONArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmarks the handling of the json configuration, which does not need a running Jenkins instance:
+ * the validation, the comparison of two configurations and the pruning of the {@link Monitor} step.
+ *
+ * @author Simon Symhoven
+ */
+@JmhBenchmark
+public class ConfigurationBenchmark {
+
+    /**
+     * The configuration to benchmark, parameterized by the number of available portlets and the number
+     * of portlets in the configuration.
+     */
+    @State(Scope.Benchmark)
+    public static class ConfigurationState {
+        @Param({"10", "100", "1000"})
+        public int portletCount;
+
+        @Param({"10", "100", "1000"})
+        public int configSize;
+
+        private String configuration;
+        private String reorderedConfiguration;
+        private JSONArray parsedConfiguration;
+        private List<String> availablePortletIds;
+        private MonitoringDefaultAction action;
+
+        /**
+         * Creates the configurations and the ids of the available portlets.
+         */
+        @Setup
+        public void setup() {
+            configuration = createConfiguration(configSize, portletCount, false);
+            reorderedConfiguration = createConfiguration(configSize, portletCount, true);
+            parsedConfiguration = new JSONArray(configuration);
+            availablePortletIds = new ArrayList<>();
+
+            for (int i = 0; i < portletCount; i++) {
+                availablePortletIds.add(getPortletId(i));
+            }
+
+            action = new MonitoringDefaultAction(null);
+        }
+    }
+
+    /**
+     * Benchmarks {@link PortletUtils#isValidConfiguration(String)}.
+     *
+     * @param state
+     *              the configuration.
+     *
+     * @return
+     *              true, if the configuration is valid.
+     */
+    @Benchmark
+    public boolean isValidConfiguration(final ConfigurationState state) {
+        return PortletUtils.isValidConfiguration(state.configuration);
+    }
+
+    /**
+     * Benchmarks {@link MonitoringDefaultAction#areJsonNodesEquals(String, String)} for two equal configurations
+     * with a different order of the keys.
+     *
+     * @param state
+     *              the configuration.
+     *
+     * @return
+     *              true, if both configurations are equal.
+     */
+    @Benchmark
+    public boolean areJsonNodesEquals(final ConfigurationState state) {
+        return state.action.areJsonNodesEquals(state.configuration, state.reorderedConfiguration);
+    }
+
+    /**
+     * Benchmarks the removal of duplicate and missing portlets of the {@link Monitor} step.
+     *
+     * @param state
+     *              the configuration.
+     *
+     * @return
+     *              the cleaned configuration.
+     */
+    @Benchmark
+    public JSONArray prunePortlets(final ConfigurationState state) {
+        return Monitor.Execution.prunePortlets(state.parsedConfiguration, state.availablePortletIds,
+                new ArrayList<>(), new ArrayList<>());
+    }
+
+    /**
+     * Get the id of the portlet with the given index.
+     *
+     * @param index
+     *              the index of the portlet.
+     *
+     * @return
+     *              the id.
+     */
+    static String getPortletId(final int index) {
+        return "io.jenkins.plugins.benchmark." + index;
+    }
+
+    /**
+     * Creates a configuration of the given size. Every 10th portlet is not available and every 20th
+     * portlet is defined twice.
+     *
+     * @param configSize
+     *              the number of portlets in the configuration.
+     *
+     * @param portletCount
+     *              the number of available portlets.
+     *
+     * @param reordered
+     *              true, if the keys of each portlet should be written in reverse order.
+     *
+     * @return
+     *              the configuration as json array string.
+     */
+    static String createConfiguration(final int configSize, final int portletCount, final boolean reordered) {
+        StringBuilder builder = new StringBuilder("[");
+
+        for (int i = 0; i < configSize; i++) {
+            String id;
+
+            if (i % 10 == 9) {
+                id = getPortletId(portletCount + i);
+            }
+            else if (i % 20 == 10) {
+                id = getPortletId(0);
+            }
+            else {
+                id = getPortletId(i % portletCount);
+            }
+
+            if (i > 0) {
+                builder.append(',');
+            }
+
+            if (reordered) {
+                builder.append(String.format("{\"color\": \"#%06d\", \"height\": %d, \"width\": %d, \"id\": \"%s\"}",
+                        i, 100 + i % 900, 100 + i % 900, id));
+            }
+            else {
+                builder.append(String.format("{\"id\": \"%s\", \"width\": %d, \"height\": %d, \"color\": \"#%06d\"}",
+                        id, 100 + i % 900, 100 + i % 900, i));
+            }
+        }
+
+        return builder.append(']').toString();
+    }
+}
@@ -0,0 +1,217 @@
+package io.jenkins.plugins.monitoring;
+
+import hudson.ExtensionList;
+import hudson.model.FreeStyleProject;
+import hudson.model.Run;
+import hudson.model.User;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import io.jenkins.plugins.monitoring.util.PortletUtils;
+import jenkins.benchmark.jmh.JmhBenchmark;
+import jenkins.benchmark.jmh.JmhBenchmarkState;
+import jenkins.model.Jenkins;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Benchmarks the hot paths of the dashboard, which need a running Jenkins instance: the default configuration,
+ * the unavailable portlets and the lookup and update of {@link MonitorConfigurationProperty}.
+ *
+ * @author Simon Symhoven
+ */
+@JmhBenchmark
+public class DashboardBenchmark {
+
+    /**
+     * The Jenkins instance with a finished build, a registered {@link MonitorPortletFactory} and a user
+     * with a {@link MonitorConfigurationProperty}.
+     */
+    public static class DashboardState extends JmhBenchmarkState {
+        @Param({"10", "100"})
+        public int portletCount;
+
+        @Param({"10", "100"})
+        public int configSize;
+
+        @Param({"10", "1000"})
+        public int configurationCount;
+
+        private Run<?, ?> run;
+        private MonitoringDefaultAction action;
+        private User user;
+        private MonitorConfigurationProperty property;
+        private String configuration;
+        private String changedConfiguration;
+        private String configurationId;
+        private boolean changed;
+
+        @Override
+        public void setup() throws Exception {
+            Jenkins jenkins = getJenkins();
+
+            ExtensionList.lookup(MonitorPortletFactory.class).add(new BenchmarkPortletFactory(portletCount));
+
+            FreeStyleProject project = jenkins.createProject(FreeStyleProject.class, "benchmark");
+            run = project.scheduleBuild2(0).get();
+            action = new MonitoringDefaultAction(run);
+
+            user = User.getById("benchmark", true);
+            property = user.getProperty(MonitorConfigurationProperty.class);
+
+            if (property == null) {
+                property = new MonitorConfigurationProperty(new ArrayList<>());
+                user.addProperty(property);
+            }
+
+            configuration = ConfigurationBenchmark.createConfiguration(configSize, portletCount, false);
+            changedConfiguration = ConfigurationBenchmark.createConfiguration(configSize, portletCount, true)
+                    .replace("#000000", "#ffffff");
+
+            for (int i = 0; i < configurationCount; i++) {
+                property.createOrUpdateConfiguration("project-" + i, configuration);
+            }
+
+            configurationId = "project-" + configurationCount / 2;
+            property.createOrUpdateConfiguration(action.getConfigurationId(), configuration);
+        }
+    }
+
+    /**
+     * Benchmarks {@link PortletUtils#getDefaultPortletsAsConfiguration(Run)}.
+     *
+     * @param state
+     *              the Jenkins instance.
+     *
+     * @return
+     *              the default configuration.
+     */
+    @Benchmark
+    public String getDefaultPortletsAsConfiguration(final DashboardState state) {
+        return PortletUtils.getDefaultPortletsAsConfiguration(state.run);
+    }
+
+    /**
+     * Benchmarks {@link MonitoringDefaultAction#getUnavailablePortlets()} for the benchmark user.
+     *
+     * @param state
+     *              the Jenkins instance.
+     *
+     * @return
+     *              the ids of the unavailable portlets.
+     */
+    @Benchmark
+    public List<String> getUnavailablePortlets(final DashboardState state) {
+        try (ACLContext ignored = ACL.as(state.user)) {
+            return state.action.getUnavailablePortlets();
+        }
+    }
+
+    /**
+     * Benchmarks {@link MonitorConfigurationProperty#getConfiguration(String)}.
+     *
+     * @param state
+     *              the Jenkins instance.
+     *
+     * @return
+     *              the configuration.
+     */
+    @Benchmark
+    public MonitorConfigurationProperty.MonitorConfiguration getConfiguration(final DashboardState state) {
+        return state.property.getConfiguration(state.configurationId);
+    }
+
+    /**
+     * Benchmarks {@link MonitorConfigurationProperty#createOrUpdateConfiguration(String, String)}
+     * with an unchanged configuration.
+     *
+     * @param state
+     *              the Jenkins instance.
+     */
+    @Benchmark
+    public void updateUnchangedConfiguration(final DashboardState state) {
+        state.property.createOrUpdateConfiguration(state.configurationId, state.configuration);
+    }
+
+    /**
+     * Benchmarks {@link MonitorConfigurationProperty#createOrUpdateConfiguration(String, String)}
+     * with a configuration, that changes on each call.
+     *
+     * @param state
+     *              the Jenkins instance.
+     */
+    @Benchmark
+    public void updateChangedConfiguration(final DashboardState state) {
+        state.changed = !state.changed;
+        state.property.createOrUpdateConfiguration(state.configurationId,
+                state.changed ? state.changedConfiguration : state.configuration);
+    }
+
+    /**
+     * A {@link MonitorPortletFactory} with a fixed number of portlets. Every second portlet is a default portlet.
+     */
+    private static class BenchmarkPortletFactory extends MonitorPortletFactory {
+        private final int portletCount;
+
+        BenchmarkPortletFactory(final int portletCount) {
+            this.portletCount = portletCount;
+        }
+
+        @Override
+        public Collection<MonitorPortlet> getPortlets(final Run<?, ?> build) {
+            List<MonitorPortlet> portlets = new ArrayList<>();
+
+            for (int i = 0; i < portletCount; i++) {
+                portlets.add(new BenchmarkPortlet(ConfigurationBenchmark.getPortletId(i), i % 2 == 0));
+            }
+
+            return portlets;
+        }
+
+        @Override
+        public String getDisplayName() {
+            return "Benchmark";
+        }
+    }
+
+    /**
+     * A {@link MonitorPortlet} without a view.
+     */
+    private static class BenchmarkPortlet extends MonitorPortlet {
+        private final String id;
+        private final boolean isDefault;
+
+        BenchmarkPortlet(final String id, final boolean isDefault) {
+            this.id = id;
+            this.isDefault = isDefault;
+        }
+
+        @Override
+        public String getTitle() {
+            return id;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public boolean isDefault() {
+            return isDefault;
+        }
+
+        @Override
+        public int getPreferredWidth() {
+            return 300;
+        }
+
+        @Override
+        public int getPreferredHeight() {
+            return 200;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package io.jenkins.plugins.monitoring;
+
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import io.jenkins.plugins.monitoring.util.FragmentCache;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.SleepBuilder;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests the caching, the weight and the invalidation of the {@link FragmentCache}. The cache is shared by all
+ * tests of the JVM, so each test uses its own portlet ids.
+ *
+ * @author Simon Symhoven
+ */
+@SuppressWarnings("checkstyle:IllegalCatch")
+public class FragmentCacheTest {
+    private static final long MAX_BYTES = Long.getLong(FragmentCache.class.getName() + ".maxBytes",
+            16L * 1024 * 1024);
+
+    /**
+     * JUnit rule to allow test cases to fire up a Jenkins instance.
+     */
+    @Rule
+    public final JenkinsRule jenkinsRule = new JenkinsRule();
+
+    /**
+     * Test if the fragments of completed runs are rendered once per portlet and locale.
+     */
+    @Test
+    public void shouldCacheFragmentsOfCompletedRuns() {
+
+        try {
+            FreeStyleBuild build = jenkinsRule.buildAndAssertSuccess(jenkinsRule.createFreeStyleProject());
+            AtomicInteger renderings = new AtomicInteger();
+            FragmentCache.Renderer renderer = () -> "fragment-" + renderings.incrementAndGet();
+
+            Assert.assertEquals("fragment-1", FragmentCache.get(build, "cache-a", Locale.ENGLISH, renderer));
+            Assert.assertEquals("fragment-1", FragmentCache.get(build, "cache-a", Locale.ENGLISH, renderer));
+            Assert.assertEquals("fragment-2", FragmentCache.get(build, "cache-a", Locale.GERMAN, renderer));
+            Assert.assertEquals("fragment-3", FragmentCache.get(build, "cache-b", Locale.ENGLISH, renderer));
+            Assert.assertEquals(3, renderings.get());
+        }
+        catch (Exception e) {
+            throw new AssertionError(e);
+        }
+
+    }
+
+    /**
+     * Test if only the fragments of the invalidated run are removed, even if the id of another run starts with
+     * the id of the invalidated run.
+     */
+    @Test
+    public void shouldInvalidateFragmentsOfRun() {
+
+        try {
+            FreeStyleProject project = jenkinsRule.createFreeStyleProject();
+            FreeStyleBuild first = jenkinsRule.buildAndAssertSuccess(project);
+            project.updateNextBuildNumber(10);
+            FreeStyleBuild tenth = jenkinsRule.buildAndAssertSuccess(project);
+
+            AtomicInteger renderings = new AtomicInteger();
+            FragmentCache.Renderer renderer = () -> "fragment-" + renderings.incrementAndGet();
+
+            Assert.assertEquals("fragment-1", FragmentCache.get(first, "invalidate", Locale.ENGLISH, renderer));
+            Assert.assertEquals("fragment-2", FragmentCache.get(tenth, "invalidate", Locale.ENGLISH, renderer));
+
+            FragmentCache.invalidate(first);
+
+            Assert.assertEquals("fragment-3", FragmentCache.get(first, "invalidate", Locale.ENGLISH, renderer));
+            Assert.assertEquals("fragment-2", FragmentCache.get(tenth, "invalidate", Locale.ENGLISH, renderer));
+        }
+        catch (Exception e) {
+            throw new AssertionError(e);
+        }
+
+    }
+
+    /**
+     * Test if a fragment, that exceeds the size of the cache, is not kept.
+     */
+    @Test
+    public void shouldNotKeepFragmentsExceedingTheWeight() {
+
+        try {
+            FreeStyleBuild build = jenkinsRule.buildAndAssertSuccess(jenkinsRule.createFreeStyleProject());
+            String fragment = StringUtils.repeat('x', (int) (MAX_BYTES / 2) + 1);
+            AtomicInteger renderings = new AtomicInteger();
+            FragmentCache.Renderer renderer = () -> {
+                renderings.incrementAndGet();
+                return fragment;
+            };
+
+            Assert.assertEquals(fragment, FragmentCache.get(build, "weight", Locale.ENGLISH, renderer));
+            Assert.assertEquals(fragment, FragmentCache.get(build, "weight", Locale.ENGLISH, renderer));
+            Assert.assertEquals(2, renderings.get());
+        }
+        catch (Exception e) {
+            throw new AssertionError(e);
+        }
+
+    }
+
+    /**
+     * Test if a failed rendering is reported with its original exception and is not cached.
+     */
+    @Test
+    public void shouldNotCacheFailedRenderings() {
+
+        try {
+            FreeStyleBuild build = jenkinsRule.buildAndAssertSuccess(jenkinsRule.createFreeStyleProject());
+            IOException failure = new IOException("Rendering failed");
+
+            IOException thrown = Assert.assertThrows(IOException.class,
+                    () -> FragmentCache.get(build, "failure", Locale.ENGLISH, () -> {
+                        throw failure;
+                    }));
+            Assert.assertSame(failure, thrown);
+
+            Assert.assertEquals("fragment", FragmentCache.get(build, "failure", Locale.ENGLISH, () -> "fragment"));
+        }
+        catch (Exception e) {
+            throw new AssertionError(e);
+        }
+
+    }
+
+    /**
+     * Test if the fragments of running builds are rendered on each request.
+     */
+    @Test
+    public void shouldNotCacheFragmentsOfRunningBuilds() {
+
+        try {
+            FreeStyleProject project = jenkinsRule.createFreeStyleProject();
+            project.getBuildersList().add(new SleepBuilder(5000));
+            FreeStyleBuild build = project.scheduleBuild2(0).waitForStart();
+
+            AtomicInteger renderings = new AtomicInteger();
+            FragmentCache.Renderer renderer = () -> "fragment-" + renderings.incrementAndGet();
+
+            Assert.assertEquals("fragment-1", FragmentCache.get(build, "running", Locale.ENGLISH, renderer));
+            Assert.assertEquals("fragment-2", FragmentCache.get(build, "running", Locale.ENGLISH, renderer));
+
+            jenkinsRule.waitForCompletion(build);
+        }
+        catch (Exception e) {
+            throw new AssertionError(e);
+        }
+
+    }
+}
@@ -0,0 +1,228 @@
+package io.jenkins.plugins.monitoring;
+
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import hudson.model.User;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import io.jenkins.plugins.monitoring.util.HttpCacheUtils;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.SleepBuilder;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Tests the validators and the 304 responses of the {@link HttpCacheUtils}.
+ *
+ * @author Simon Symhoven
+ */
+@SuppressWarnings("checkstyle:IllegalCatch")
+public class HttpCacheUtilsTest {
+    private static final String RESOURCE = "portlet/my-portlet-id/content";
+    private static final String STATUS = "status";
+
+    /**
+     * JUnit rule to allow test cases to fire up a Jenkins instance.
+     */
+    @Rule
+    public final JenkinsRule jenkinsRule = new JenkinsRule();
+
+    /**
+     * Test if a 304 is sent, if the client's copy of the resource of a completed run has a matching ETag.
+     */
+    @Test
+    public void shouldSendNotModifiedForMatchingETag() {
+
+        try {
+            FreeStyleBuild build = jenkinsRule.buildAndAssertSuccess(jenkinsRule.createFreeStyleProject());
+
+            Map<String, String> headers = new HashMap<>();
+            Assert.assertFalse(HttpCacheUtils.isNotModified(request(), response(headers), build, RESOURCE));
+            Assert.assertEquals("private, no-cache", headers.get("Cache-Control"));
+            Assert.assertEquals("Accept-Language", headers.get("Vary"));
+            Assert.assertNull(headers.get(STATUS));
+
+            String etag = headers.get("ETag");
+            Assert.assertNotNull(etag);
+
+            assertNotModified(build, true, "If-None-Match", etag);
+            assertNotModified(build, true, "If-None-Match", "\"other\", W/" + etag);
+            assertNotModified(build, true, "If-None-Match", "*");
+            assertNotModified(build, false, "If-None-Match", "\"other\"");
+
+            Map<String, String> otherResource = new HashMap<>();
+            HttpCacheUtils.isNotModified(request(), response(otherResource), build, "portlet/other/content");
+            Assert.assertNotEquals(etag, otherResource.get("ETag"));
+        }
+        catch (Exception e) {
+            throw new AssertionError(e);
+        }
+
+    }
+
+    /**
+     * Test if the Last-Modified date is only used, if the client does not send an ETag.
+     */
+    @Test
+    public void shouldSendNotModifiedForLastModified() {
+
+        try {
+            FreeStyleBuild build = jenkinsRule.buildAndAssertSuccess(jenkinsRule.createFreeStyleProject());
+
+            Map<String, String> headers = new HashMap<>();
+            HttpCacheUtils.isNotModified(request(), response(headers), build, RESOURCE);
+            long lastModified = Long.parseLong(headers.get("Last-Modified"));
+
+            assertNotModified(build, true, "If-Modified-Since", String.valueOf(lastModified));
+            assertNotModified(build, false, "If-Modified-Since", String.valueOf(lastModified - 1000));
+            assertNotModified(build, false, "If-Modified-Since", String.valueOf(lastModified),
+                    "If-None-Match", "\"other\"");
+        }
+        catch (Exception e) {
+            throw new AssertionError(e);
+        }
+
+    }
+
+    /**
+     * Test if the ETag depends on the current user, so a user never gets a 304 for the copy of another user.
+     */
+    @Test
+    public void shouldCreateETagPerUser() {
+
+        try {
+            jenkinsRule.jenkins.setSecurityRealm(jenkinsRule.createDummySecurityRealm());
+            FreeStyleBuild build = jenkinsRule.buildAndAssertSuccess(jenkinsRule.createFreeStyleProject());
+
+            Assert.assertNotEquals(getETag(build, "alice"), getETag(build, "bob"));
+            Assert.assertEquals(getETag(build, "alice"), getETag(build, "alice"));
+        }
+        catch (Exception e) {
+            throw new AssertionError(e);
+        }
+
+    }
+
+    /**
+     * Test if the resources of a running build are never cached.
+     */
+    @Test
+    public void shouldNotCacheRunningBuilds() {
+
+        try {
+            FreeStyleProject project = jenkinsRule.createFreeStyleProject();
+            project.getBuildersList().add(new SleepBuilder(5000));
+            FreeStyleBuild build = project.scheduleBuild2(0).waitForStart();
+
+            Map<String, String> headers = new HashMap<>();
+            Assert.assertFalse(HttpCacheUtils.isNotModified(request("If-None-Match", "*"), response(headers),
+                    build, RESOURCE));
+            Assert.assertEquals("private, no-store", headers.get("Cache-Control"));
+            Assert.assertNull(headers.get("ETag"));
+            Assert.assertNull(headers.get(STATUS));
+
+            jenkinsRule.waitForCompletion(build);
+        }
+        catch (Exception e) {
+            throw new AssertionError(e);
+        }
+
+    }
+
+    /**
+     * Test if a 304 is sent for resources with their own ETag, e.g. the cards of the pull request overview.
+     */
+    @Test
+    public void shouldSendNotModifiedForOwnETag() {
+        Map<String, String> headers = new HashMap<>();
+
+        Assert.assertTrue(HttpCacheUtils.isNotModified(request("If-None-Match", "\"cards\""), response(headers),
+                "\"cards\""));
+        Assert.assertEquals("\"cards\"", headers.get("ETag"));
+        Assert.assertEquals("private, no-cache", headers.get("Cache-Control"));
+        Assert.assertEquals(String.valueOf(HttpServletResponse.SC_NOT_MODIFIED), headers.get(STATUS));
+
+        Assert.assertFalse(HttpCacheUtils.isNotModified(request("If-None-Match", "\"other\""),
+                response(new HashMap<>()), "\"cards\""));
+        Assert.assertFalse(HttpCacheUtils.isNotModified(request(), response(new HashMap<>()), "\"cards\""));
+    }
+
+    private void assertNotModified(final FreeStyleBuild build, final boolean expected, final String... requestHeaders) {
+        Map<String, String> headers = new HashMap<>();
+
+        Assert.assertEquals(expected, HttpCacheUtils.isNotModified(request(requestHeaders), response(headers),
+                build, RESOURCE));
+        Assert.assertEquals(expected ? String.valueOf(HttpServletResponse.SC_NOT_MODIFIED) : null,
+                headers.get(STATUS));
+    }
+
+    private String getETag(final FreeStyleBuild build, final String user) {
+        try (ACLContext ignored = ACL.as2(Objects.requireNonNull(User.getById(user, true)).impersonate2())) {
+            Map<String, String> headers = new HashMap<>();
+            HttpCacheUtils.isNotModified(request(), response(headers), build, RESOURCE);
+            return headers.get("ETag");
+        }
+    }
+
+    /**
+     * Creates a {@link StaplerRequest}, that only provides the given headers and an english locale.
+     */
+    private static StaplerRequest request(final String... headers) {
+        Map<String, String> values = new HashMap<>();
+
+        for (int i = 0; i < headers.length; i += 2) {
+            values.put(headers[i], headers[i + 1]);
+        }
+
+        return (StaplerRequest) Proxy.newProxyInstance(StaplerRequest.class.getClassLoader(),
+                new Class<?>[] {StaplerRequest.class},
+                (proxy, method, args) -> {
+                    String value = args == null ? null : values.get((String) args[0]);
+
+                    switch (method.getName()) {
+                        case "getHeader":
+                            return value;
+                        case "getDateHeader":
+                            return value == null ? -1L : Long.parseLong(value);
+                        case "getLocale":
+                            return Locale.ENGLISH;
+                        default:
+                            return null;
+                    }
+                });
+    }
+
+    /**
+     * Creates a {@link StaplerResponse}, that records the headers and the status in the given map.
+     */
+    private static StaplerResponse response(final Map<String, String> headers) {
+        return (StaplerResponse) Proxy.newProxyInstance(StaplerResponse.class.getClassLoader(),
+                new Class<?>[] {StaplerResponse.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "setHeader":
+                        case "addHeader":
+                        case "setDateHeader":
+                            headers.put((String) args[0], String.valueOf(args[1]));
+                            break;
+                        case "setStatus":
+                            headers.put(STATUS, String.valueOf(args[0]));
+                            break;
+                        default:
+                            break;
+                    }
+
+                    return null;
+                });
+    }
+}
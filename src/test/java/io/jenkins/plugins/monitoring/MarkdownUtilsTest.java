@@ -0,0 +1,49 @@
+package io.jenkins.plugins.monitoring;
+
+import io.jenkins.plugins.monitoring.util.MarkdownUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link MarkdownUtils}.
+ *
+ * @author Simon Symhoven
+ */
+public class MarkdownUtilsTest {
+    private static final int MAX_LENGTH = Integer.getInteger(MarkdownUtils.class.getName() + ".maxLength", 65_536);
+    private static final String TRUNCATED = "<p><em>The description has been truncated.</em></p>";
+
+    /**
+     * Test if the markdown is rendered as html and the rendered html is cached.
+     */
+    @Test
+    public void shouldRenderMarkdown() {
+        String markdown = "Fixes **the overview** of `PR-1`.";
+        String html = MarkdownUtils.render(markdown);
+
+        Assert.assertEquals("<p>Fixes <strong>the overview</strong> of <code>PR-1</code>.</p>\n", html);
+        Assert.assertSame(html, MarkdownUtils.render(markdown));
+    }
+
+    /**
+     * Test if descriptions longer than the maximum length are truncated and marked as truncated.
+     */
+    @Test
+    public void shouldTruncateLongDescriptions() {
+        String html = MarkdownUtils.render(StringUtils.repeat('a', MAX_LENGTH + 100));
+
+        Assert.assertEquals("<p>" + StringUtils.repeat('a', MAX_LENGTH) + "</p>\n" + TRUNCATED + "\n", html);
+    }
+
+    /**
+     * Test if descriptions with the maximum length are not truncated.
+     */
+    @Test
+    public void shouldNotTruncateDescriptionsWithMaximumLength() {
+        String html = MarkdownUtils.render(StringUtils.repeat('b', MAX_LENGTH));
+
+        Assert.assertEquals("<p>" + StringUtils.repeat('b', MAX_LENGTH) + "</p>\n", html);
+        Assert.assertFalse(html.contains(TRUNCATED));
+    }
+}
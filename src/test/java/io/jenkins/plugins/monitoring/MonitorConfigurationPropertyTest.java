@@ -0,0 +1,224 @@
+package io.jenkins.plugins.monitoring;
+
+import hudson.model.User;
+import io.jenkins.plugins.monitoring.util.CanonicalConfiguration;
+import io.jenkins.plugins.monitoring.util.PortletUtils;
+import jenkins.model.Jenkins;
+import org.everit.json.schema.ValidationException;
+import org.json.JSONArray;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Unit tests for the {@link MonitorConfigurationProperty}.
+ *
+ * @author Simon Symhoven
+ */
+public class MonitorConfigurationPropertyTest {
+    private static final String PROPERTY = "io.jenkins.plugins.monitoring.MonitorConfigurationProperty";
+    private static final String CONFIGURATION = PROPERTY + "_-MonitorConfiguration";
+
+    /**
+     * JUnit rule to allow test cases to fire up a Jenkins instance.
+     */
+    @Rule
+    public final JenkinsRule jenkinsRule = new JenkinsRule();
+
+    /**
+     * Test if the configurations of previous versions, stored as list, are migrated into the id-keyed map.
+     */
+    @Test
+    public void shouldMigrateConfigurationList() {
+        MonitorConfigurationProperty property = read("<" + PROPERTY + ">"
+                + "<configurations>"
+                + configuration("default", "[{\"id\": \"a\"}]")
+                + configuration("project", "[{\"id\": \"b\"}]")
+                + configuration("project", "[{\"id\": \"c\"}]")
+                + "</configurations>"
+                + "</" + PROPERTY + ">");
+
+        Assert.assertEquals(2, property.getConfigurations().size());
+        Assert.assertEquals("default", property.getConfiguration("default").getId());
+        Assert.assertEquals("project", property.getConfiguration("project").getId());
+        Assert.assertEquals("[{\"id\":\"b\"}]", property.getConfiguration("project").getConfig());
+        Assert.assertEquals("default", property.getConfiguration("unknown").getId());
+    }
+
+    /**
+     * Test if a property without configurations is migrated into an empty map.
+     */
+    @Test
+    public void shouldMigrateEmptyProperty() {
+        MonitorConfigurationProperty property = read("<" + PROPERTY + "/>");
+
+        Assert.assertTrue(property.getConfigurations().isEmpty());
+        Assert.assertEquals(0, property.getVersion("default"));
+    }
+
+    /**
+     * Test if a migrated property is written in the new format and read again.
+     */
+    @Test
+    public void shouldWriteMigratedProperty() {
+        MonitorConfigurationProperty property = read("<" + PROPERTY + ">"
+                + "<configurations>"
+                + configuration("default", "[{\"id\": \"a\"}]")
+                + "</configurations>"
+                + "</" + PROPERTY + ">");
+
+        String xml = Jenkins.XSTREAM2.toXML(property);
+        Assert.assertFalse(xml.contains("<configurations>"));
+
+        MonitorConfigurationProperty reread = read(xml);
+        Assert.assertEquals(1, reread.getConfigurations().size());
+        Assert.assertEquals("[{\"id\":\"a\"}]", reread.getConfiguration("default").getConfig());
+    }
+
+    /**
+     * Test if configurations of previous versions are converted into the canonical form and get a hash, so equal
+     * configurations with different formatting have the same hash.
+     */
+    @Test
+    public void shouldCanonicalizeConfigurationsOfPreviousVersions() {
+        String xml = Jenkins.XSTREAM2.toXML(new MonitorConfigurationProperty(Arrays.asList(
+                new MonitorConfigurationProperty.MonitorConfiguration("default", "[{\"id\":\"a\"}]"),
+                new MonitorConfigurationProperty.MonitorConfiguration("project", "[{\"id\":\"a\",\"width\":200}]"))));
+
+        MonitorConfigurationProperty property = read(xml
+                .replaceAll("<hash>[^<]*</hash>", "")
+                .replace("[{&quot;id&quot;:&quot;a&quot;}]", "[ { \"width\": 200, \"id\": \"a\" } ]"));
+
+        MonitorConfigurationProperty.MonitorConfiguration defaultConfiguration = property.getConfiguration("default");
+        MonitorConfigurationProperty.MonitorConfiguration projectConfiguration = property.getConfiguration("project");
+
+        Assert.assertEquals("[{\"id\":\"a\",\"width\":200}]", defaultConfiguration.getConfig());
+        Assert.assertNotNull(defaultConfiguration.getHash());
+        Assert.assertEquals(defaultConfiguration.getHash(), projectConfiguration.getHash());
+    }
+
+    /**
+     * Test if configurations are stored canonically and an update with an equal configuration in another
+     * formatting does not change the version.
+     */
+    @Test
+    public void shouldNotChangeVersionOfEqualConfiguration() throws IOException {
+        MonitorConfigurationProperty property = createProperty();
+
+        property.createOrUpdateConfiguration("project", "[{\"id\": \"a\", \"width\": 200}]");
+        long version = property.getVersion("project");
+
+        property.createOrUpdateConfiguration("project", "[ { \"width\": 200, \"id\": \"a\" } ]");
+        Assert.assertEquals(version, property.getVersion("project"));
+
+        property.createOrUpdateConfiguration("project", "[{\"id\": \"a\", \"width\": 300}]");
+        Assert.assertNotEquals(version, property.getVersion("project"));
+    }
+
+    /**
+     * Test if a validated configuration is stored in canonical form with the same hash as an equal configuration,
+     * that has been stored without validation.
+     */
+    @Test
+    public void shouldStoreValidatedConfiguration() throws IOException {
+        MonitorConfigurationProperty property = createProperty();
+        property.createOrUpdateConfiguration("project", "[{\"id\": \"a\", \"width\": 200}]");
+        long version = property.getVersion("project");
+
+        CanonicalConfiguration configuration = PortletUtils.validateConfiguration(
+                "[ { \"width\": 200, \"id\": \"a\" } ]");
+        Assert.assertEquals("[{\"id\":\"a\",\"width\":200}]", configuration.getConfig());
+        Assert.assertEquals(property.getConfiguration("project").getHash(), configuration.getHash());
+
+        property.createOrUpdateConfiguration("project", configuration);
+        Assert.assertEquals(version, property.getVersion("project"));
+
+        Assert.assertThrows(ValidationException.class, () -> PortletUtils.validateConfiguration(
+                "[{\"id\": \"a\", \"width\": 50}]"));
+    }
+
+    /**
+     * Test if a patch is only applied to the version of the configuration it is based on. A missing configuration
+     * is patched based on the default configuration.
+     */
+    @Test
+    public void shouldRejectPatchesOfStaleVersions() throws IOException {
+        MonitorConfigurationProperty property = createProperty();
+        property.createOrUpdateConfiguration(MonitorConfigurationProperty.DEFAULT_ID,
+                "[{\"id\": \"a\"}, {\"id\": \"b\"}]");
+
+        Assert.assertTrue(property.patchConfiguration("project", 0,
+                new JSONArray("[{\"op\": \"remove\", \"id\": \"b\"}]")));
+        Assert.assertEquals("[{\"id\":\"a\"}]", property.getConfiguration("project").getConfig());
+
+        long version = property.getVersion("project");
+        Assert.assertTrue(version > property.getVersion(MonitorConfigurationProperty.DEFAULT_ID));
+
+        Assert.assertFalse(property.patchConfiguration("project", 0,
+                new JSONArray("[{\"op\": \"add\", \"id\": \"c\"}]")));
+        Assert.assertEquals("[{\"id\":\"a\"}]", property.getConfiguration("project").getConfig());
+        Assert.assertEquals(version, property.getVersion("project"));
+
+        Assert.assertTrue(property.patchConfiguration("project", version,
+                new JSONArray("[{\"op\": \"resize\", \"id\": \"a\", \"width\": 200}]")));
+        Assert.assertEquals("[{\"id\":\"a\",\"width\":200}]", property.getConfiguration("project").getConfig());
+        Assert.assertTrue(property.getVersion("project") > version);
+    }
+
+    /**
+     * Test if an invalid patch is rejected and does not change the configuration.
+     */
+    @Test
+    public void shouldNotApplyInvalidPatches() throws IOException {
+        MonitorConfigurationProperty property = createProperty();
+        property.createOrUpdateConfiguration("project", "[{\"id\": \"a\"}]");
+        long version = property.getVersion("project");
+
+        Assert.assertThrows(ValidationException.class, () -> property.patchConfiguration("project", version,
+                new JSONArray("[{\"op\": \"resize\", \"id\": \"a\", \"width\": 50}]")));
+        Assert.assertThrows(IllegalArgumentException.class, () -> property.patchConfiguration("project", version,
+                new JSONArray("[{\"op\": \"rename\", \"id\": \"a\"}]")));
+
+        Assert.assertEquals("[{\"id\":\"a\"}]", property.getConfiguration("project").getConfig());
+        Assert.assertEquals(version, property.getVersion("project"));
+    }
+
+    /**
+     * Test if the version of a configuration, that is removed and created again, is not reused, so patches based on
+     * the removed configuration are rejected.
+     */
+    @Test
+    public void shouldNotReuseVersionsOfRemovedConfigurations() throws IOException {
+        MonitorConfigurationProperty property = createProperty();
+        property.createOrUpdateConfiguration("project", "[{\"id\": \"a\"}]");
+        long version = property.getVersion("project");
+
+        property.removeConfiguration("project");
+        Assert.assertEquals(0, property.getVersion("project"));
+
+        property.createOrUpdateConfiguration("project", "[{\"id\": \"a\"}]");
+        Assert.assertTrue(property.getVersion("project") > version);
+        Assert.assertFalse(property.patchConfiguration("project", version,
+                new JSONArray("[{\"op\": \"remove\", \"id\": \"a\"}]")));
+    }
+
+    static MonitorConfigurationProperty createProperty() throws IOException {
+        MonitorConfigurationProperty property = new MonitorConfigurationProperty(new ArrayList<>());
+        Objects.requireNonNull(User.getById("alice", true)).addProperty(property);
+        return property;
+    }
+
+    static MonitorConfigurationProperty read(final String xml) {
+        return (MonitorConfigurationProperty) Jenkins.XSTREAM2.fromXML(xml);
+    }
+
+    static String configuration(final String id, final String config) {
+        return "<" + CONFIGURATION + "><id>" + id + "</id><config>" + config + "</config></" + CONFIGURATION + ">";
+    }
+}
@@ -1,22 +1,12 @@
 package io.jenkins.plugins.monitoring;
 
 import hudson.model.Result;
-import jenkins.branch.BranchSource;
-import jenkins.scm.impl.mock.MockSCMController;
-import jenkins.scm.impl.mock.MockSCMDiscoverBranches;
-import jenkins.scm.impl.mock.MockSCMDiscoverChangeRequests;
-import jenkins.scm.impl.mock.MockSCMSource;
-import org.apache.commons.io.IOUtils;
 import org.jenkinsci.plugins.workflow.job.WorkflowJob;
 import org.jenkinsci.plugins.workflow.job.WorkflowRun;
 import org.jenkinsci.plugins.workflow.multibranch.WorkflowMultiBranchProject;
 import org.junit.*;
 import org.jvnet.hudson.test.JenkinsRule;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.util.Objects;
-
 /**
  * Unit tests for the {@link Monitor} step.
  *
@@ -31,23 +21,11 @@ public class MonitorTest {
     @Rule
     public final JenkinsRule jenkinsRule = new JenkinsRule();
 
-    private MockSCMController controller;
-
     /**
-     * Creates a {@link MockSCMController} before each test.
+     * JUnit rule to create multibranch projects based on a mock repository.
      */
-    @Before
-    public void init() {
-        controller = MockSCMController.create();
-    }
-
-    /**
-     * Closes the {@link MockSCMController} after each test. Cleans the repository.
-     */
-    @After
-    public void teardown() {
-        controller.close();
-    }
+    @Rule
+    public final MultiBranchProjectFixture fixture = new MultiBranchProjectFixture(jenkinsRule);
 
     /**
      * Test if {@link MonitoringDefaultAction} and {@link MonitoringCustomAction} is added if {@link hudson.model.Run}
@@ -57,7 +35,7 @@ public class MonitorTest {
     public void shouldAddCustomAndDefaultMonitorWhenBuildIsPr() {
 
         try {
-            WorkflowMultiBranchProject project = createRepositoryWithPr("Jenkinsfile.customEmpty");
+            WorkflowMultiBranchProject project = fixture.createProjectWithPullRequests("Jenkinsfile.customEmpty", 1);
 
             project.scheduleBuild2(0);
             jenkinsRule.waitUntilNoActivity();
@@ -89,7 +67,7 @@ public class MonitorTest {
     public void shouldAddDefaultMonitorWhenBuildIsPr() {
 
         try {
-            WorkflowMultiBranchProject project = createRepositoryWithPr("Jenkinsfile.emptyStage");
+            WorkflowMultiBranchProject project = fixture.createProjectWithPullRequests("Jenkinsfile.emptyStage", 1);
 
             project.scheduleBuild2(0);
             jenkinsRule.waitUntilNoActivity();
@@ -118,7 +96,7 @@ public class MonitorTest {
     public void shouldSkipAddDefaultAndCustomMonitorWhenBuildIsNotPr() {
 
         try {
-            WorkflowMultiBranchProject project = createRepositoryWithoutPr("Jenkinsfile.customEmpty");
+            WorkflowMultiBranchProject project = fixture.createProjectWithBranch("Jenkinsfile.customEmpty");
 
             project.scheduleBuild2(0);
             jenkinsRule.waitUntilNoActivity();
@@ -147,7 +125,7 @@ public class MonitorTest {
     public void shouldRemovePortletFromConfigurationWhenAddingNotExistingPortlet() {
 
         try {
-            WorkflowMultiBranchProject project = createRepositoryWithPr("Jenkinsfile.custom");
+            WorkflowMultiBranchProject project = fixture.createProjectWithPullRequests("Jenkinsfile.custom", 1);
 
             project.scheduleBuild2(0);
             jenkinsRule.waitUntilNoActivity();
@@ -177,7 +155,7 @@ public class MonitorTest {
     public void shouldFailIfConfigurationInPipelineIsInvalid() {
 
         try {
-            WorkflowMultiBranchProject project = createRepositoryWithPr("Jenkinsfile.error");
+            WorkflowMultiBranchProject project = fixture.createProjectWithPullRequests("Jenkinsfile.error", 1);
 
             project.scheduleBuild2(0);
             jenkinsRule.waitUntilNoActivity();
@@ -203,7 +181,7 @@ public class MonitorTest {
     public void shouldFailIfNoConfigurationInPipelineIsProvided() {
 
         try {
-            WorkflowMultiBranchProject project = createRepositoryWithPr("Jenkinsfile.error2");
+            WorkflowMultiBranchProject project = fixture.createProjectWithPullRequests("Jenkinsfile.error2", 1);
 
             project.scheduleBuild2(0);
             jenkinsRule.waitUntilNoActivity();
@@ -220,75 +198,4 @@ public class MonitorTest {
         }
 
     }
-    
-    /**
-     * Creates an {@link WorkflowMultiBranchProject} with a sample pull request based on the given Jenkinsfile.
-     *
-     * @param jenkinsfile
-     *              the name of the Jenkinsfile to add to the repository.
-     *
-     * @return
-     *              the generated {@link WorkflowMultiBranchProject}.
-     *
-     */
-    private WorkflowMultiBranchProject createRepositoryWithPr(final String jenkinsfile) {
-
-        try (InputStream st = getClass().getResourceAsStream(String.format("/io/jenkins/plugins/monitoring/%s", jenkinsfile))) {
-
-            controller.createRepository("scm-repo");
-            controller.createBranch("scm-repo", "master");
-            final int num = controller.openChangeRequest("scm-repo", "master");
-            final String crNum = "change-request/" + num;
-
-            byte[] targetArray = IOUtils.toByteArray(Objects.requireNonNull(st));
-
-            controller.addFile("scm-repo", crNum, "Jenkinsfile", "Jenkinsfile",
-                    targetArray);
-
-            WorkflowMultiBranchProject project = jenkinsRule.createProject(WorkflowMultiBranchProject.class);
-            project.getSourcesList().add(new BranchSource(new MockSCMSource(controller, "scm-repo",
-                    new MockSCMDiscoverChangeRequests())));
-
-            return project;
-        }
-        catch (IOException e) {
-            throw new AssertionError(e);
-        }
-
-    }
-
-    /**
-     * Creates an {@link WorkflowMultiBranchProject} without a sample pull request based on the given Jenkinsfile.
-     *
-     * @param jenkinsfile
-     *              the name of the Jenkinsfile to add to the repository.
-     *
-     * @return
-     *              the generated {@link WorkflowMultiBranchProject}.
-     *
-     */
-    private WorkflowMultiBranchProject createRepositoryWithoutPr(final String jenkinsfile) {
-
-        try (InputStream st = getClass().getResourceAsStream(String.format("/io/jenkins/plugins/monitoring/%s", jenkinsfile))) {
-
-            controller.createRepository("scm-repo");
-            controller.createBranch("scm-repo", "master");
-
-            byte[] targetArray = IOUtils.toByteArray(Objects.requireNonNull(st));
-
-            controller.addFile("scm-repo", "master", "Jenkinsfile", "Jenkinsfile",
-                    targetArray);
-
-            WorkflowMultiBranchProject project = jenkinsRule.createProject(WorkflowMultiBranchProject.class);
-            project.getSourcesList().add(new BranchSource(new MockSCMSource(controller, "scm-repo",
-                    new MockSCMDiscoverBranches())));
-
-            return project;
-        }
-        catch (IOException e) {
-            throw new AssertionError(e);
-        }
-
-    }
-
 }
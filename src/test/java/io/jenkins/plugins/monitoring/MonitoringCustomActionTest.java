@@ -0,0 +1,48 @@
+package io.jenkins.plugins.monitoring;
+
+import jenkins.model.Jenkins;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+/**
+ * Unit tests for the {@link MonitoringCustomAction}.
+ *
+ * @author Simon Symhoven
+ */
+public class MonitoringCustomActionTest {
+    private static final String ACTION = "io.jenkins.plugins.monitoring.MonitoringCustomAction";
+
+    /**
+     * JUnit rule to allow test cases to fire up a Jenkins instance.
+     */
+    @Rule
+    public final JenkinsRule jenkinsRule = new JenkinsRule();
+
+    /**
+     * Test if the portlets are stored in canonical form with a hash.
+     */
+    @Test
+    public void shouldStorePortletsCanonically() {
+        MonitoringCustomAction action = new MonitoringCustomAction("[ { \"width\": 200, \"id\": \"a\" } ]");
+
+        Assert.assertEquals("[{\"id\":\"a\",\"width\":200}]", action.getPortlets());
+        Assert.assertEquals(new MonitoringCustomAction("[{\"id\":\"a\",\"width\":200}]").getHash(),
+                action.getHash());
+    }
+
+    /**
+     * Test if the portlets of previous versions, stored without hash, are converted into the canonical form.
+     */
+    @Test
+    public void shouldCanonicalizePortletsOfPreviousVersions() {
+        MonitoringCustomAction action = (MonitoringCustomAction) Jenkins.XSTREAM2.fromXML("<" + ACTION + ">"
+                + "<portlets>[ { \"width\": 200, \"id\": \"a\" } ]</portlets>"
+                + "</" + ACTION + ">");
+
+        Assert.assertEquals("[{\"id\":\"a\",\"width\":200}]", action.getPortlets());
+        Assert.assertEquals(new MonitoringCustomAction("[{\"id\":\"a\",\"width\":200}]").getHash(),
+                action.getHash());
+    }
+}
@@ -0,0 +1,114 @@
+package io.jenkins.plugins.monitoring;
+
+import hudson.model.User;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import io.jenkins.plugins.monitoring.util.ConfigurationUtils;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+import org.jenkinsci.plugins.workflow.multibranch.WorkflowMultiBranchProject;
+import org.json.JSONObject;
+import org.junit.*;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import java.util.Objects;
+
+/**
+ * Tests the configuration of the dashboard of the {@link MonitoringDefaultAction} for users without a stored
+ * configuration.
+ *
+ * @author Simon Symhoven
+ */
+@SuppressWarnings("checkstyle:IllegalCatch")
+public class MonitoringDefaultActionTest {
+    private static final String OTHER_PROJECT_CONFIGURATION = "[{\"id\":\"other-project-portlet\"}]";
+
+    /**
+     * JUnit rule to allow test cases to fire up a Jenkins instance.
+     */
+    @Rule
+    public final JenkinsRule jenkinsRule = new JenkinsRule();
+
+    /**
+     * JUnit rule to create multibranch projects based on a mock repository.
+     */
+    @Rule
+    public final MultiBranchProjectFixture fixture = new MultiBranchProjectFixture(jenkinsRule);
+
+    /**
+     * Test if a user, that has neither a configuration of the project nor a default configuration, gets the default
+     * configuration of the run, e.g. if the default has not been stored since the catalog was incomplete.
+     */
+    @Test
+    public void shouldFallBackToDefaultConfigurationWithoutStoredConfiguration() {
+
+        try {
+            MonitoringDefaultAction action = createAction();
+            MonitorConfigurationProperty property = MonitorConfigurationPropertyTest.createProperty();
+
+            try (ACLContext ignored = ACL.as2(Objects.requireNonNull(User.getById("alice", false)).impersonate2())) {
+                Assert.assertNull(property.getConfiguration(action.getConfigurationId()));
+
+                String defaultConfiguration = action.resolvePortlets();
+                Assert.assertEquals(defaultConfiguration, action.getConfiguration());
+                Assert.assertTrue(action.isMonitorConfigurationSynced());
+
+                JSONObject state = new JSONObject(action.getConfigurationState());
+                Assert.assertEquals(ConfigurationUtils.canonicalize(defaultConfiguration),
+                        ConfigurationUtils.canonicalize(state.getJSONArray("config").toString()));
+
+                action.resetMonitorConfiguration();
+                Assert.assertEquals(defaultConfiguration, action.getConfiguration());
+            }
+        }
+        catch (Exception e) {
+            throw new AssertionError(e);
+        }
+
+    }
+
+    /**
+     * Test if the dashboard shows the default configuration of its own run and not the default configuration of
+     * the dashboard of another project, that has been opened before.
+     */
+    @Test
+    public void shouldNotShowDefaultConfigurationOfOtherProject() {
+
+        try {
+            MonitoringDefaultAction action = createAction();
+            MonitorConfigurationProperty property = MonitorConfigurationPropertyTest.createProperty();
+            property.createOrUpdateConfiguration(MonitorConfigurationProperty.DEFAULT_ID, OTHER_PROJECT_CONFIGURATION);
+
+            try (ACLContext ignored = ACL.as2(Objects.requireNonNull(User.getById("alice", false)).impersonate2())) {
+                String defaultConfiguration = ConfigurationUtils.canonicalize(action.resolvePortlets());
+                DashboardBootstrap bootstrap = action.getBootstrap();
+
+                Assert.assertEquals(defaultConfiguration,
+                        ConfigurationUtils.canonicalize(bootstrap.getConfiguration()));
+                Assert.assertTrue(bootstrap.isSynced());
+                Assert.assertEquals(defaultConfiguration, Objects.requireNonNull(
+                        property.getConfiguration(MonitorConfigurationProperty.DEFAULT_ID)).getConfig());
+            }
+        }
+        catch (Exception e) {
+            throw new AssertionError(e);
+        }
+
+    }
+
+    /**
+     * Creates a pull request, that has been built without a {@link Monitor} step, with a security realm, so
+     * users can be impersonated.
+     *
+     * @return
+     *              the {@link MonitoringDefaultAction} of the build of the pull request.
+     */
+    private MonitoringDefaultAction createAction() throws Exception {
+        jenkinsRule.jenkins.setSecurityRealm(jenkinsRule.createDummySecurityRealm());
+
+        WorkflowMultiBranchProject project = fixture.createProjectWithPullRequests("Jenkinsfile.emptyStage", 1);
+        fixture.index(project);
+
+        WorkflowRun build = Objects.requireNonNull(project.getItems().iterator().next().getLastBuild());
+        return Objects.requireNonNull(build.getAction(MonitoringDefaultAction.class));
+    }
+}
@@ -0,0 +1,83 @@
+package io.jenkins.plugins.monitoring;
+
+import hudson.model.Item;
+import hudson.model.User;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import jenkins.model.Jenkins;
+import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+import org.jenkinsci.plugins.workflow.multibranch.WorkflowMultiBranchProject;
+import org.junit.*;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.MockAuthorizationStrategy;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Tests the permissions of the pull request overview of the {@link MonitoringMultibranchProjectAction}.
+ *
+ * @author Simon Symhoven
+ */
+@SuppressWarnings("checkstyle:IllegalCatch")
+public class MonitoringMultibranchProjectActionTest {
+
+    /**
+     * JUnit rule to allow test cases to fire up a Jenkins instance.
+     */
+    @Rule
+    public final JenkinsRule jenkinsRule = new JenkinsRule();
+
+    /**
+     * JUnit rule to create multibranch projects based on a mock repository.
+     */
+    @Rule
+    public final MultiBranchProjectFixture fixture = new MultiBranchProjectFixture(jenkinsRule);
+
+    /**
+     * Test that each user only sees the pull requests, that the user is permitted to read, and that the user,
+     * that accesses the overview first, does not decide the content of the shared index.
+     */
+    @Test
+    public void shouldOnlyShowReadablePullRequests() {
+
+        try {
+            WorkflowMultiBranchProject project = fixture.createProjectWithPullRequests("Jenkinsfile.emptyStage", 2);
+            fixture.index(project);
+
+            List<WorkflowJob> jobs = project.getItems().stream()
+                    .sorted((a, b) -> a.getName().compareTo(b.getName()))
+                    .collect(Collectors.toList());
+            Assert.assertEquals(2, jobs.size());
+
+            jenkinsRule.jenkins.setSecurityRealm(jenkinsRule.createDummySecurityRealm());
+            jenkinsRule.jenkins.setAuthorizationStrategy(new MockAuthorizationStrategy()
+                    .grant(Jenkins.READ).everywhere().to("alice", "bob")
+                    .grant(Item.READ).onItems(project).to("alice", "bob")
+                    .grant(Item.READ).onItems(jobs.get(0), jobs.get(1)).to("alice")
+                    .grant(Item.READ).onItems(jobs.get(0)).to("bob")
+                    .grant(Item.DISCOVER).onItems(jobs.get(1)).to("bob"));
+
+            MonitoringMultibranchProjectAction action = new MonitoringMultibranchProjectAction(project);
+
+            Assert.assertEquals(List.of(jobs.get(0).getName()), getPullRequestNames(action, "bob"));
+            Assert.assertEquals(List.of(jobs.get(0).getName(), jobs.get(1).getName()),
+                    getPullRequestNames(action, "alice"));
+            Assert.assertEquals(2, PullRequestIndex.forProject(project).getPullRequests().size());
+        }
+        catch (Exception e) {
+            throw new AssertionError(e);
+        }
+
+    }
+
+    private List<String> getPullRequestNames(final MonitoringMultibranchProjectAction action, final String user) {
+        try (ACLContext ignored = ACL.as2(Objects.requireNonNull(User.getById(user, true)).impersonate2())) {
+            return action.getPullRequestSummaries().stream()
+                    .map(PullRequestSummary::getName)
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package io.jenkins.plugins.monitoring;
+
+import hudson.ExtensionList;
+import hudson.model.Run;
+import org.htmlunit.HttpMethod;
+import org.htmlunit.WebRequest;
+import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+import org.jenkinsci.plugins.workflow.multibranch.WorkflowMultiBranchProject;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.*;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Scalability tests for the pull request overview, the build dashboard and the {@code @JavaScriptMethod}s of
+ * {@link MonitoringDefaultAction}. The test synthesizes a multibranch project with N pull requests, M builds
+ * per pull request and K registered {@link MonitorPortletFactory} extensions, measures the latency and the
+ * allocated bytes of each request and fails if a result exceeds its budget.
+ *
+ * <p>The budgets depend on the machine, so the test is only executed with the benchmark profile:
+ * {@code mvn test -Pbenchmark}. The results are logged and therefore part of the surefire report. Larger runs can be
+ * configured with system properties, e.g.
+ * {@code mvn test -Pbenchmark -Dtest=MonitoringScalabilityTest -Dpull-request-monitoring.scalability.pullRequests=100}:
+ * </p>
+ * <ul>
+ *     <li>{@code pull-request-monitoring.scalability.pullRequests}: the number of pull requests (N)</li>
+ *     <li>{@code pull-request-monitoring.scalability.builds}: the number of builds per pull request (M)</li>
+ *     <li>{@code pull-request-monitoring.scalability.factories}: the number of portlet factories (K)</li>
+ *     <li>{@code pull-request-monitoring.scalability.portlets}: the number of portlets per factory</li>
+ *     <li>{@code pull-request-monitoring.scalability.iterations}: the number of measured requests</li>
+ *     <li>{@code pull-request-monitoring.scalability.budget.overview}: the latency budget of the overview in ms</li>
+ *     <li>{@code pull-request-monitoring.scalability.budget.dashboard}: the latency budget of the dashboard
+ *     and the portlets in ms</li>
+ *     <li>{@code pull-request-monitoring.scalability.budget.javascript}: the latency budget of each
+ *     {@code @JavaScriptMethod} in ms</li>
+ *     <li>{@code pull-request-monitoring.scalability.budget.allocation}: the allocation budget of each request
+ *     in MB</li>
+ * </ul>
+ *
+ * @author Simon Symhoven
+ */
+@SuppressWarnings("checkstyle:IllegalCatch")
+public class MonitoringScalabilityTest {
+    private static final Logger LOGGER = Logger.getLogger(MonitoringScalabilityTest.class.getName());
+    private static final String PREFIX = "pull-request-monitoring.scalability.";
+
+    private static final int PULL_REQUESTS = Integer.getInteger(PREFIX + "pullRequests", 3);
+    private static final int BUILDS = Integer.getInteger(PREFIX + "builds", 2);
+    private static final int FACTORIES = Integer.getInteger(PREFIX + "factories", 5);
+    private static final int PORTLETS = Integer.getInteger(PREFIX + "portlets", 5);
+    private static final int ITERATIONS = Integer.getInteger(PREFIX + "iterations", 3);
+
+    private static final long OVERVIEW_BUDGET = Long.getLong(PREFIX + "budget.overview", 5000);
+    private static final long DASHBOARD_BUDGET = Long.getLong(PREFIX + "budget.dashboard", 5000);
+    private static final long JAVASCRIPT_BUDGET = Long.getLong(PREFIX + "budget.javascript", 1000);
+    private static final long ALLOCATION_BUDGET = Long.getLong(PREFIX + "budget.allocation", 512);
+
+    private static final String USER = "alice";
+
+    /**
+     * JUnit rule to allow test cases to fire up a Jenkins instance.
+     */
+    @Rule
+    public final JenkinsRule jenkinsRule = new JenkinsRule();
+
+    /**
+     * JUnit rule to create multibranch projects based on a mock repository.
+     */
+    @Rule
+    public final MultiBranchProjectFixture fixture = new MultiBranchProjectFixture(jenkinsRule);
+
+    private final Map<String, Measurement> measurements = new LinkedHashMap<>();
+
+    /**
+     * Test that the overview, the dashboard, the portlets and the {@code @JavaScriptMethod}s of a project with
+     * N pull requests, M builds each and K portlet factories respond within their budgets.
+     */
+    @Test
+    public void shouldRespondWithinBudgets() {
+
+        try {
+            List<String> portletIds = registerFactories();
+            WorkflowMultiBranchProject project = fixture.createProjectWithPullRequests("Jenkinsfile.customEmpty",
+                    PULL_REQUESTS);
+            fixture.index(project);
+
+            Collection<WorkflowJob> jobs = project.getItems();
+            Assert.assertEquals(PULL_REQUESTS, jobs.size());
+
+            for (WorkflowJob job : jobs) {
+                for (int i = 1; i < BUILDS; i++) {
+                    jenkinsRule.buildAndAssertSuccess(job);
+                }
+            }
+
+            jenkinsRule.jenkins.setSecurityRealm(jenkinsRule.createDummySecurityRealm());
+
+            try (JenkinsRule.WebClient webClient = jenkinsRule.createWebClient()) {
+                webClient.getOptions().setJavaScriptEnabled(false);
+                webClient.login(USER);
+
+                measure("overview", OVERVIEW_BUDGET, () -> webClient.getPage(project, "pull-request-monitoring/"));
+
+                String configuration = createConfiguration(portletIds);
+
+                for (WorkflowJob job : jobs) {
+                    WorkflowRun build = Objects.requireNonNull(job.getLastBuild());
+                    String dashboard = build.getUrl() + "pull-request-monitoring/";
+
+                    invoke(webClient, build, "updateMonitorConfiguration", configuration);
+
+                    measure("dashboard", DASHBOARD_BUDGET, () -> webClient.getPage(build, "pull-request-monitoring/"));
+
+                    for (String id : portletIds) {
+                        measure("portlet", DASHBOARD_BUDGET,
+                                () -> webClient.goTo(dashboard + "portlet/" + id + "/content", "text/html"));
+                    }
+
+                    measure("javascript.getConfiguration", JAVASCRIPT_BUDGET,
+                            () -> invoke(webClient, build, "getConfiguration"));
+                    measure("javascript.isMonitorConfigurationSynced", JAVASCRIPT_BUDGET,
+                            () -> invoke(webClient, build, "isMonitorConfigurationSynced"));
+                    measure("javascript.resolvePortlets", JAVASCRIPT_BUDGET,
+                            () -> invoke(webClient, build, "resolvePortlets"));
+                    measure("javascript.updateMonitorConfiguration", JAVASCRIPT_BUDGET,
+                            () -> invoke(webClient, build, "updateMonitorConfiguration", configuration));
+                    measure("javascript.resetMonitorConfiguration", JAVASCRIPT_BUDGET,
+                            () -> invoke(webClient, build, "resetMonitorConfiguration"));
+                }
+            }
+
+            measurements.values().forEach(Measurement::verify);
+        }
+        catch (Exception e) {
+            throw new AssertionError(e);
+        }
+
+    }
+
+    /**
+     * Registers K {@link ScalabilityPortletFactory} extensions.
+     *
+     * @return
+     *              the ids of all registered portlets.
+     */
+    private List<String> registerFactories() {
+        List<String> portletIds = new ArrayList<>();
+        ExtensionList<MonitorPortletFactory> factories = ExtensionList.lookup(MonitorPortletFactory.class);
+
+        for (int i = 0; i < FACTORIES; i++) {
+            ScalabilityPortletFactory factory = new ScalabilityPortletFactory(i);
+            factories.add(factory);
+            factory.getPortlets(null).forEach(portlet -> portletIds.add(portlet.getId()));
+        }
+
+        return portletIds;
+    }
+
+    /**
+     * Creates a configuration with all registered portlets.
+     *
+     * @param portletIds
+     *              the ids of all registered portlets.
+     *
+     * @return
+     *              the configuration as json array string.
+     */
+    private String createConfiguration(final List<String> portletIds) {
+        JSONArray configuration = new JSONArray();
+
+        for (String id : portletIds) {
+            configuration.put(new JSONObject()
+                    .put("id", id)
+                    .put("width", 300)
+                    .put("height", 200)
+                    .put("color", "#000000"));
+        }
+
+        return configuration.toString();
+    }
+
+    /**
+     * Invokes a {@code @JavaScriptMethod} of the {@link MonitoringDefaultAction} of the given build the same way
+     * as the stapler proxy in the browser does.
+     *
+     * @param webClient
+     *              the logged in web client.
+     *
+     * @param build
+     *              the build of the dashboard.
+     *
+     * @param method
+     *              the name of the method.
+     *
+     * @param arguments
+     *              the arguments of the method.
+     *
+     * @return
+     *              the response as string.
+     */
+    private String invoke(final JenkinsRule.WebClient webClient, final Run<?, ?> build, final String method,
+                          final Object... arguments) throws Exception {
+        WebRequest request = new WebRequest(
+                new URL(jenkinsRule.getURL(), build.getUrl() + "pull-request-monitoring/" + method), HttpMethod.POST);
+        request.setAdditionalHeader("Content-Type", "application/x-stapler-method-invocation;charset=UTF-8");
+        request.setRequestBody(new JSONArray(arguments).toString());
+
+        return webClient.getPage(webClient.addCrumb(request)).getWebResponse().getContentAsString();
+    }
+
+    /**
+     * Measures the latency and the allocated bytes of a request. The request is sent once to warm up
+     * and then measured {@link #ITERATIONS} times.
+     *
+     * @param name
+     *              the name of the measurement.
+     *
+     * @param budget
+     *              the latency budget in ms.
+     *
+     * @param request
+     *              the request to measure.
+     */
+    private void measure(final String name, final long budget, final Callable<?> request) throws Exception {
+        Measurement measurement = measurements.computeIfAbsent(name, key -> new Measurement(key, budget));
+
+        request.call();
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            long allocated = getAllocatedBytes();
+            long start = System.nanoTime();
+
+            request.call();
+
+            measurement.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                    getAllocatedBytes() - allocated);
+        }
+    }
+
+    /**
+     * Get the bytes allocated by all threads of the JVM. Since the requests are served by other threads than
+     * the test thread, all threads are taken into account.
+     *
+     * @return
+     *              the allocated bytes or 0, if the JVM does not support the measurement.
+     */
+    private static long getAllocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return 0;
+        }
+
+        long allocated = 0;
+
+        for (long bytes : ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(bean.getAllThreadIds())) {
+            allocated += Math.max(bytes, 0);
+        }
+
+        return allocated;
+    }
+
+    /**
+     * The latencies and allocations of all requests with the same name.
+     */
+    private static class Measurement {
+        private final String name;
+        private final long budget;
+        private long maxLatency;
+        private long maxAllocation;
+        private long totalLatency;
+        private int count;
+
+        Measurement(final String name, final long budget) {
+            this.name = name;
+            this.budget = budget;
+        }
+
+        void add(final long latency, final long allocation) {
+            maxLatency = Math.max(maxLatency, latency);
+            maxAllocation = Math.max(maxAllocation, allocation);
+            totalLatency += latency;
+            count++;
+        }
+
+        void verify() {
+            long allocation = maxAllocation / (1024 * 1024);
+
+            LOGGER.info(String.format("%s: %d requests, avg %d ms, max %d ms, max %d MB allocated",
+                    name, count, count == 0 ? 0 : totalLatency / count, maxLatency, allocation));
+
+            Assert.assertTrue(String.format("%s took %d ms, budget is %d ms", name, maxLatency, budget),
+                    maxLatency <= budget);
+            Assert.assertTrue(String.format("%s allocated %d MB, budget is %d MB", name, allocation,
+                    ALLOCATION_BUDGET), allocation <= ALLOCATION_BUDGET);
+        }
+    }
+
+    /**
+     * A {@link MonitorPortletFactory} with {@link #PORTLETS} {@link DemoPortlet}s.
+     */
+    private static class ScalabilityPortletFactory extends MonitorPortletFactory {
+        private final int index;
+
+        ScalabilityPortletFactory(final int index) {
+            this.index = index;
+        }
+
+        @Override
+        public Collection<MonitorPortlet> getPortlets(final Run<?, ?> build) {
+            List<MonitorPortlet> portlets = new ArrayList<>();
+
+            for (int i = 0; i < PORTLETS; i++) {
+                portlets.add(new DemoPortlet("Scalability Portlet " + index + "-" + i,
+                        "scalability-portlet-" + index + "-" + i));
+            }
+
+            return portlets;
+        }
+
+        @Override
+        public String getDisplayName() {
+            return "Scalability " + index;
+        }
+    }
+}
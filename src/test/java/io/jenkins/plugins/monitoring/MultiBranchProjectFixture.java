@@ -0,0 +1,146 @@
+package io.jenkins.plugins.monitoring;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import jenkins.branch.BranchSource;
+import jenkins.scm.api.trait.SCMSourceTrait;
+import jenkins.scm.impl.mock.MockSCMController;
+import jenkins.scm.impl.mock.MockSCMDiscoverBranches;
+import jenkins.scm.impl.mock.MockSCMDiscoverChangeRequests;
+import jenkins.scm.impl.mock.MockSCMSource;
+import org.apache.commons.io.IOUtils;
+import org.jenkinsci.plugins.workflow.multibranch.WorkflowMultiBranchProject;
+import org.junit.rules.ExternalResource;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Objects;
+
+/**
+ * JUnit rule to create {@link WorkflowMultiBranchProject multibranch projects} based on a repository of a
+ * {@link MockSCMController}. The controller is created before and closed after each test. The Jenkinsfiles are
+ * read from the test resources of this package.
+ *
+ * @author Simon Symhoven
+ */
+public class MultiBranchProjectFixture extends ExternalResource {
+    private static final String REPOSITORY = "scm-repo";
+    private static final String TARGET = "master";
+
+    private final JenkinsRule jenkinsRule;
+    private MockSCMController controller;
+
+    /**
+     * Creates a new instance of {@link MultiBranchProjectFixture}.
+     *
+     * @param jenkinsRule
+     *              the rule of the Jenkins instance to create the projects in.
+     */
+    public MultiBranchProjectFixture(final JenkinsRule jenkinsRule) {
+        this.jenkinsRule = jenkinsRule;
+    }
+
+    @Override
+    protected void before() {
+        controller = MockSCMController.create();
+    }
+
+    @Override
+    protected void after() {
+        controller.close();
+    }
+
+    /**
+     * Creates a project, that discovers the pull requests of the repository, with the given number of pull
+     * requests targeting the master branch. The pull requests are not built yet, see {@link #index}.
+     *
+     * @param jenkinsfile
+     *              the name of the Jenkinsfile of the pull requests.
+     *
+     * @param pullRequests
+     *              the number of pull requests.
+     *
+     * @return
+     *              the generated {@link WorkflowMultiBranchProject}.
+     */
+    public WorkflowMultiBranchProject createProjectWithPullRequests(final String jenkinsfile, final int pullRequests)
+            throws IOException {
+        WorkflowMultiBranchProject project = createProject(null, new MockSCMDiscoverChangeRequests());
+
+        for (int i = 0; i < pullRequests; i++) {
+            openPullRequest(jenkinsfile);
+        }
+
+        return project;
+    }
+
+    /**
+     * Creates a project, that discovers the branches of the repository only, with a master branch, that contains
+     * the given Jenkinsfile. The branch is not built yet, see {@link #index}.
+     *
+     * @param jenkinsfile
+     *              the name of the Jenkinsfile of the master branch.
+     *
+     * @return
+     *              the generated {@link WorkflowMultiBranchProject}.
+     */
+    public WorkflowMultiBranchProject createProjectWithBranch(final String jenkinsfile) throws IOException {
+        return createProject(jenkinsfile, new MockSCMDiscoverBranches());
+    }
+
+    /**
+     * Creates the repository with a master branch and a project for it.
+     *
+     * @param jenkinsfile
+     *              the name of the Jenkinsfile of the master branch or null, if the branch has no Jenkinsfile.
+     *
+     * @param traits
+     *              the traits of the {@link MockSCMSource}, e.g. which heads are discovered.
+     *
+     * @return
+     *              the generated {@link WorkflowMultiBranchProject}.
+     */
+    public WorkflowMultiBranchProject createProject(@CheckForNull final String jenkinsfile,
+                                                    final SCMSourceTrait... traits) throws IOException {
+        controller.createRepository(REPOSITORY);
+        controller.createBranch(REPOSITORY, TARGET);
+
+        if (jenkinsfile != null) {
+            controller.addFile(REPOSITORY, TARGET, "Jenkinsfile", "Jenkinsfile", readJenkinsfile(jenkinsfile));
+        }
+
+        WorkflowMultiBranchProject project = jenkinsRule.createProject(WorkflowMultiBranchProject.class);
+        project.getSourcesList().add(new BranchSource(new MockSCMSource(controller, REPOSITORY, traits)));
+
+        return project;
+    }
+
+    /**
+     * Opens a pull request, that targets the master branch, with the given Jenkinsfile.
+     *
+     * @param jenkinsfile
+     *              the name of the Jenkinsfile of the pull request.
+     */
+    public void openPullRequest(final String jenkinsfile) throws IOException {
+        final int num = controller.openChangeRequest(REPOSITORY, TARGET);
+        controller.addFile(REPOSITORY, "change-request/" + num, "Jenkinsfile", "Jenkinsfile",
+                readJenkinsfile(jenkinsfile));
+    }
+
+    /**
+     * Indexes the project and waits until all discovered branches and pull requests have been built.
+     *
+     * @param project
+     *              the project to index.
+     */
+    public void index(final WorkflowMultiBranchProject project) throws Exception {
+        project.scheduleBuild2(0);
+        jenkinsRule.waitUntilNoActivity();
+    }
+
+    private byte[] readJenkinsfile(final String jenkinsfile) throws IOException {
+        try (InputStream st = getClass().getResourceAsStream("/io/jenkins/plugins/monitoring/" + jenkinsfile)) {
+            return IOUtils.toByteArray(Objects.requireNonNull(st));
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package io.jenkins.plugins.monitoring;
+
+import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+import org.jenkinsci.plugins.workflow.multibranch.WorkflowMultiBranchProject;
+import org.junit.*;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Tests the {@link PullRequestIndex} of a {@link WorkflowMultiBranchProject}.
+ *
+ * @author Simon Symhoven
+ */
+@SuppressWarnings("checkstyle:IllegalCatch")
+public class PullRequestIndexTest {
+
+    /**
+     * JUnit rule to allow test cases to fire up a Jenkins instance.
+     */
+    @Rule
+    public final JenkinsRule jenkinsRule = new JenkinsRule();
+
+    /**
+     * JUnit rule to create multibranch projects based on a mock repository.
+     */
+    @Rule
+    public final MultiBranchProjectFixture fixture = new MultiBranchProjectFixture(jenkinsRule);
+
+    /**
+     * Test if the index contains a summary of each pull request and refreshes the summary, if the pull request
+     * has been built again.
+     */
+    @Test
+    public void shouldIndexAndRefreshPullRequests() {
+
+        try {
+            WorkflowMultiBranchProject project = createRepositoryWithPullRequests();
+            List<WorkflowJob> jobs = getJobs(project);
+            PullRequestIndex index = PullRequestIndex.forProject(project);
+
+            Assert.assertSame(index, PullRequestIndex.forProject(project));
+            Assert.assertEquals(2, index.getPullRequests().size());
+
+            for (WorkflowJob job : jobs) {
+                PullRequestSummary summary = getSummary(index, job.getName());
+                Assert.assertEquals(1, summary.getLastBuildNumber());
+                Assert.assertTrue(summary.isLastBuildCompleted());
+                Assert.assertEquals("master", summary.getTarget());
+            }
+
+            WorkflowJob job = jobs.get(0);
+            jenkinsRule.buildAndAssertSuccess(job);
+            index.update(job);
+
+            Assert.assertEquals(2, getSummary(index, job.getName()).getLastBuildNumber());
+            Assert.assertEquals(1, getSummary(index, jobs.get(1).getName()).getLastBuildNumber());
+        }
+        catch (Exception e) {
+            throw new AssertionError(e);
+        }
+
+    }
+
+    /**
+     * Test if an update without changes keeps the version of the index and if deleted pull requests are removed
+     * from the index.
+     */
+    @Test
+    public void shouldRemoveDeletedPullRequests() {
+
+        try {
+            WorkflowMultiBranchProject project = createRepositoryWithPullRequests();
+            List<WorkflowJob> jobs = getJobs(project);
+            PullRequestIndex index = PullRequestIndex.forProject(project);
+
+            String version = index.getVersion();
+            index.update(jobs.get(0));
+            Assert.assertEquals(version, index.getVersion());
+
+            index.remove("unknown");
+            Assert.assertEquals(version, index.getVersion());
+
+            jobs.get(0).delete();
+
+            Assert.assertNotEquals(version, index.getVersion());
+            Assert.assertEquals(List.of(jobs.get(1).getName()), index.getPullRequests().stream()
+                    .map(PullRequestSummary::getName)
+                    .collect(Collectors.toList()));
+        }
+        catch (Exception e) {
+            throw new AssertionError(e);
+        }
+
+    }
+
+    /**
+     * Test if only the pull requests, that have been changed after a version, are returned, and if all pull
+     * requests must be considered as changed for unknown versions.
+     */
+    @Test
+    public void shouldGetPullRequestsChangedSinceVersion() {
+
+        try {
+            WorkflowMultiBranchProject project = createRepositoryWithPullRequests();
+            List<WorkflowJob> jobs = getJobs(project);
+            PullRequestIndex index = PullRequestIndex.forProject(project);
+
+            String version = index.getVersion();
+            String epoch = version.substring(0, version.lastIndexOf('-'));
+
+            Assert.assertEquals(Optional.of(Set.of()), index.getChangedSince(version));
+            Assert.assertEquals(Optional.of(Set.of(jobs.get(0).getName(), jobs.get(1).getName())),
+                    index.getChangedSince(epoch + "-0"));
+
+            Assert.assertEquals(Optional.empty(), index.getChangedSince(null));
+            Assert.assertEquals(Optional.empty(), index.getChangedSince("other-0"));
+            Assert.assertEquals(Optional.empty(), index.getChangedSince(epoch + "-invalid"));
+            Assert.assertEquals(Optional.empty(), index.getChangedSince(epoch + "-" + Long.MAX_VALUE));
+
+            WorkflowJob job = jobs.get(1);
+            jenkinsRule.buildAndAssertSuccess(job);
+            index.update(job);
+
+            Assert.assertNotEquals(version, index.getVersion());
+            Assert.assertEquals(Optional.of(Set.of(job.getName())), index.getChangedSince(version));
+            Assert.assertEquals(Optional.of(Set.of()), index.getChangedSince(index.getVersion()));
+        }
+        catch (Exception e) {
+            throw new AssertionError(e);
+        }
+
+    }
+
+    /**
+     * Test if the summary only shows the recorded reference build of a pull request and does not search it.
+     */
+    @Test
+    public void shouldOnlyShowRecordedReferenceBuild() {
+
+        try {
+            WorkflowMultiBranchProject project = createRepositoryWithPullRequests();
+            List<WorkflowJob> jobs = getJobs(project);
+            PullRequestIndex index = PullRequestIndex.forProject(project);
+
+            WorkflowJob job = jobs.get(0);
+            WorkflowRun build = Objects.requireNonNull(job.getLastBuild());
+            WorkflowRun referenceBuild = Objects.requireNonNull(jobs.get(1).getLastBuild());
+            Assert.assertNull(getSummary(index, job.getName()).getReferenceBuildUrl());
+
+            build.addOrReplaceAction(new MonitoringReferenceAction(referenceBuild.getExternalizableId()));
+            index.update(job);
+
+            PullRequestSummary summary = getSummary(index, job.getName());
+            Assert.assertEquals(referenceBuild.getUrl(), summary.getReferenceBuildUrl());
+            Assert.assertEquals(referenceBuild.getFullDisplayName(), summary.getReferenceBuildName());
+        }
+        catch (Exception e) {
+            throw new AssertionError(e);
+        }
+
+    }
+
+    private PullRequestSummary getSummary(final PullRequestIndex index, final String name) {
+        return index.getPullRequests().stream()
+                .filter(summary -> summary.getName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("Pull request " + name + " is not indexed."));
+    }
+
+    private List<WorkflowJob> getJobs(final WorkflowMultiBranchProject project) {
+        return project.getItems().stream()
+                .sorted((a, b) -> a.getName().compareTo(b.getName()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Creates an {@link WorkflowMultiBranchProject} with two pull requests, that have been built once.
+     *
+     * @return
+     *              the generated {@link WorkflowMultiBranchProject}.
+     */
+    private WorkflowMultiBranchProject createRepositoryWithPullRequests() throws Exception {
+        WorkflowMultiBranchProject project = fixture.createProjectWithPullRequests("Jenkinsfile.emptyStage", 2);
+        fixture.index(project);
+        return project;
+    }
+}
@@ -0,0 +1,170 @@
+package io.jenkins.plugins.monitoring;
+
+import hudson.util.XStream2;
+import org.junit.Assert;
+import org.junit.Test;
+import org.kohsuke.stapler.StaplerRequest;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Unit tests for the filtering, sorting and paging of the {@link PullRequestOverview}.
+ *
+ * @author Simon Symhoven
+ */
+public class PullRequestOverviewTest {
+    private static final String SUMMARY = "io.jenkins.plugins.monitoring.PullRequestSummary";
+
+    private static final List<PullRequestSummary> SUMMARIES = Arrays.asList(
+            summary("1", "alice", "main", 300),
+            summary("2", "Bob", "main", 100),
+            summary("10", "carol", "develop", 500),
+            summary("11", null, "develop", 200),
+            summary("3", "alice", "main", 400));
+
+    /**
+     * Test if the pull requests are sorted by their last build, newest first, by default.
+     */
+    @Test
+    public void shouldSortByLastBuildByDefault() {
+        PullRequestOverview overview = new PullRequestOverview(SUMMARIES, request());
+
+        Assert.assertEquals(Arrays.asList("10", "3", "1", "11", "2"), getNumbers(overview));
+        Assert.assertEquals("lastBuild", overview.getSort());
+        Assert.assertEquals("desc", overview.getOrder());
+    }
+
+    /**
+     * Test if the pull requests are sorted numerically by their number.
+     */
+    @Test
+    public void shouldSortByNumber() {
+        Assert.assertEquals(Arrays.asList("1", "2", "3", "10", "11"),
+                getNumbers(new PullRequestOverview(SUMMARIES, request("sort", "number", "order", "asc"))));
+        Assert.assertEquals(Arrays.asList("11", "10", "3", "2", "1"),
+                getNumbers(new PullRequestOverview(SUMMARIES, request("sort", "number", "order", "desc"))));
+    }
+
+    /**
+     * Test if the pull requests are sorted by contributor ascending by default, ignoring the case and with
+     * unknown contributors last.
+     */
+    @Test
+    public void shouldSortByContributor() {
+        PullRequestOverview overview = new PullRequestOverview(SUMMARIES, request("sort", "contributor"));
+
+        Assert.assertEquals("asc", overview.getOrder());
+        Assert.assertEquals(Arrays.asList("alice", "alice", "Bob", "carol", null), overview.getPullRequests().stream()
+                .map(PullRequestSummary::getContributor)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Test if the pull requests are filtered by target branch, contributor and text.
+     */
+    @Test
+    public void shouldFilterPullRequests() {
+        Assert.assertEquals(Arrays.asList("10", "11"),
+                getNumbers(new PullRequestOverview(SUMMARIES, request("target", "develop"))));
+        Assert.assertEquals(Arrays.asList("3", "1"),
+                getNumbers(new PullRequestOverview(SUMMARIES, request("contributor", "alice"))));
+        Assert.assertEquals(Arrays.asList("3", "1"),
+                getNumbers(new PullRequestOverview(SUMMARIES, request("target", "main", "q", "ALICE"))));
+        Assert.assertEquals(Arrays.asList("10", "1", "11"),
+                getNumbers(new PullRequestOverview(SUMMARIES, request("q", " title 1 "))));
+        Assert.assertTrue(getNumbers(new PullRequestOverview(SUMMARIES, request("q", "unknown"))).isEmpty());
+    }
+
+    /**
+     * Test if the filter options contain the distinct targets and contributors of all pull requests.
+     */
+    @Test
+    public void shouldCollectFilterOptions() {
+        PullRequestOverview overview = new PullRequestOverview(SUMMARIES, request("target", "develop"));
+
+        Assert.assertEquals(Arrays.asList("develop", "main"), overview.getTargets());
+        Assert.assertEquals(Arrays.asList("alice", "Bob", "carol"), overview.getContributors());
+    }
+
+    /**
+     * Test if the pull requests are paginated and the page and its size are kept in their bounds.
+     */
+    @Test
+    public void shouldPaginatePullRequests() {
+        PullRequestOverview overview = new PullRequestOverview(SUMMARIES,
+                request("sort", "number", "order", "asc", "size", "2", "page", "2"));
+
+        Assert.assertEquals(Arrays.asList("3", "10"), getNumbers(overview));
+        Assert.assertEquals(5, overview.getTotal());
+        Assert.assertEquals(2, overview.getPage());
+        Assert.assertEquals(3, overview.getPageCount());
+        Assert.assertEquals("sort=number&order=asc&size=2&page=3", overview.getQuery(3));
+
+        PullRequestOverview last = new PullRequestOverview(SUMMARIES,
+                request("sort", "number", "order", "asc", "size", "2", "page", "42"));
+        Assert.assertEquals(3, last.getPage());
+        Assert.assertEquals(Arrays.asList("11"), getNumbers(last));
+
+        PullRequestOverview first = new PullRequestOverview(SUMMARIES, request("page", "-1", "size", "1000"));
+        Assert.assertEquals(1, first.getPage());
+        Assert.assertEquals(PullRequestOverview.MAX_PAGE_SIZE, first.getPageSize());
+        Assert.assertEquals(5, first.getPullRequests().size());
+    }
+
+    /**
+     * Test if an overview without pull requests has one empty page.
+     */
+    @Test
+    public void shouldShowEmptyPage() {
+        PullRequestOverview overview = new PullRequestOverview(Collections.emptyList(), request("page", "2"));
+
+        Assert.assertTrue(overview.getPullRequests().isEmpty());
+        Assert.assertEquals(1, overview.getPage());
+        Assert.assertEquals(1, overview.getPageCount());
+        Assert.assertEquals(PullRequestOverview.DEFAULT_PAGE_SIZE, overview.getPageSize());
+    }
+
+    private static List<String> getNumbers(final PullRequestOverview overview) {
+        return overview.getPullRequests().stream()
+                .map(PullRequestSummary::getNumber)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Creates a {@link PullRequestSummary} as it is read from the snapshot of the {@link PullRequestIndex}.
+     */
+    private static PullRequestSummary summary(final String number, final String contributor, final String target,
+                                              final long timestamp) {
+        return (PullRequestSummary) new XStream2().fromXML("<" + SUMMARY + ">"
+                + "<name>PR-" + number + "</name>"
+                + "<displayName>PR-" + number + "</displayName>"
+                + "<number>" + number + "</number>"
+                + "<title>Title " + number + "</title>"
+                + (contributor == null ? "" : "<contributor>" + contributor + "</contributor>")
+                + "<source>feature-" + number + "</source>"
+                + "<target>" + target + "</target>"
+                + "<lastBuildTimestamp>" + timestamp + "</lastBuildTimestamp>"
+                + "</" + SUMMARY + ">");
+    }
+
+    /**
+     * Creates a {@link StaplerRequest}, that only provides the given query parameters.
+     */
+    private static StaplerRequest request(final String... parameters) {
+        Map<String, String> values = new HashMap<>();
+
+        for (int i = 0; i < parameters.length; i += 2) {
+            values.put(parameters[i], parameters[i + 1]);
+        }
+
+        return (StaplerRequest) Proxy.newProxyInstance(StaplerRequest.class.getClassLoader(),
+                new Class<?>[] {StaplerRequest.class},
+                (proxy, method, args) -> "getParameter".equals(method.getName()) ? values.get((String) args[0]) : null);
+    }
+}
@@ -0,0 +1,87 @@
+package io.jenkins.plugins.monitoring;
+
+import hudson.model.Saveable;
+import io.jenkins.plugins.monitoring.util.SaveScheduler;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for the {@link SaveScheduler}.
+ *
+ * @author Simon Symhoven
+ */
+public class SaveSchedulerTest {
+
+    /**
+     * Test if multiple save requests for the same object are coalesced into one write.
+     */
+    @Test
+    public void shouldCoalesceSaves() {
+        CountingSaveable saveable = new CountingSaveable();
+
+        SaveScheduler.schedule(saveable);
+        SaveScheduler.schedule(saveable);
+        SaveScheduler.schedule(saveable);
+
+        Assert.assertEquals(0, saveable.getSaves());
+
+        SaveScheduler.flush(saveable);
+        Assert.assertEquals(1, saveable.getSaves());
+
+        SaveScheduler.flush(saveable);
+        Assert.assertEquals(1, saveable.getSaves());
+    }
+
+    /**
+     * Test if a save can be scheduled again, after the pending save has been written.
+     */
+    @Test
+    public void shouldScheduleAgainAfterFlush() {
+        CountingSaveable saveable = new CountingSaveable();
+
+        SaveScheduler.schedule(saveable);
+        SaveScheduler.flush(saveable);
+        SaveScheduler.schedule(saveable);
+        SaveScheduler.flush(saveable);
+
+        Assert.assertEquals(2, saveable.getSaves());
+    }
+
+    /**
+     * Test if all pending saves are written on shutdown and objects without pending save are not written.
+     */
+    @Test
+    public void shouldFlushAllPendingSavesOnShutdown() {
+        CountingSaveable first = new CountingSaveable();
+        CountingSaveable second = new CountingSaveable();
+        CountingSaveable third = new CountingSaveable();
+
+        SaveScheduler.schedule(first);
+        SaveScheduler.schedule(second);
+        SaveScheduler.schedule(second);
+
+        SaveScheduler.flushAll();
+
+        Assert.assertEquals(1, first.getSaves());
+        Assert.assertEquals(1, second.getSaves());
+        Assert.assertEquals(0, third.getSaves());
+    }
+
+    /**
+     * A {@link Saveable}, that counts its writes.
+     */
+    private static class CountingSaveable implements Saveable {
+        private final AtomicInteger saves = new AtomicInteger();
+
+        @Override
+        public void save() {
+            saves.incrementAndGet();
+        }
+
+        int getSaves() {
+            return saves.get();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package io.jenkins.plugins.monitoring;
+
+import io.jenkins.plugins.monitoring.util.SingleFlight;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Unit tests for the {@link SingleFlight}.
+ *
+ * @author Simon Symhoven
+ */
+@SuppressWarnings("checkstyle:IllegalCatch")
+public class SingleFlightTest {
+
+    /**
+     * Test if a caller, that arrives while the computation of the same key is in flight, shares its result.
+     */
+    @Test
+    public void shouldShareResultOfComputationInFlight() {
+
+        try {
+            SingleFlight<String, String> singleFlight = new SingleFlight<>();
+            CountDownLatch release = new CountDownLatch(1);
+            AtomicInteger computations = new AtomicInteger();
+
+            CompletableFuture<String> leader = startLeader(singleFlight, () -> {
+                computations.incrementAndGet();
+                release.await();
+                return "leader";
+            });
+
+            AtomicReference<Thread> followerThread = new AtomicReference<>();
+            CompletableFuture<String> follower = CompletableFuture.supplyAsync(() -> {
+                followerThread.set(Thread.currentThread());
+                return singleFlight.execute("key", () -> {
+                    computations.incrementAndGet();
+                    return "follower";
+                });
+            });
+
+            awaitWaiting(followerThread);
+            release.countDown();
+
+            Assert.assertEquals("leader", leader.get(10, TimeUnit.SECONDS));
+            Assert.assertEquals("leader", follower.get(10, TimeUnit.SECONDS));
+            Assert.assertEquals(1, computations.get());
+        }
+        catch (Exception e) {
+            throw new AssertionError(e);
+        }
+
+    }
+
+    /**
+     * Test if the waiting callers compute the value on their own, if the computation in flight fails, so the
+     * failure of the leader is not reported to them.
+     */
+    @Test
+    public void shouldComputeAgainIfLeaderFails() {
+
+        try {
+            SingleFlight<String, String> singleFlight = new SingleFlight<>();
+            CountDownLatch release = new CountDownLatch(1);
+
+            CompletableFuture<String> leader = startLeader(singleFlight, () -> {
+                release.await();
+                throw new IOException("Leader failed");
+            });
+
+            AtomicReference<Thread> followerThread = new AtomicReference<>();
+            CompletableFuture<String> follower = CompletableFuture.supplyAsync(() -> {
+                followerThread.set(Thread.currentThread());
+                return singleFlight.execute("key", () -> "follower");
+            });
+
+            awaitWaiting(followerThread);
+            release.countDown();
+
+            try {
+                leader.get(10, TimeUnit.SECONDS);
+                Assert.fail("The failure of the leader has not been reported.");
+            }
+            catch (ExecutionException exception) {
+                Assert.assertEquals("Leader failed", exception.getCause().getMessage());
+            }
+
+            Assert.assertEquals("follower", follower.get(10, TimeUnit.SECONDS));
+        }
+        catch (Exception e) {
+            throw new AssertionError(e);
+        }
+
+    }
+
+    /**
+     * Test if the result is not kept once the computation has been completed and different keys are computed
+     * independently.
+     */
+    @Test
+    public void shouldNotKeepResults() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        AtomicInteger computations = new AtomicInteger();
+
+        Assert.assertEquals("value-1", singleFlight.execute("key", () -> "value-" + computations.incrementAndGet()));
+        Assert.assertEquals("value-2", singleFlight.execute("key", () -> "value-" + computations.incrementAndGet()));
+        Assert.assertEquals("other", singleFlight.execute("key",
+                () -> singleFlight.execute("other-key", () -> "other")));
+
+        Assert.assertThrows(IOException.class, () -> singleFlight.execute("key", () -> {
+            throw new IOException("Computation failed");
+        }));
+        Assert.assertEquals("value-3", singleFlight.execute("key", () -> "value-" + computations.incrementAndGet()));
+    }
+
+    /**
+     * Starts the leader of a computation and waits until the computation is in flight.
+     */
+    private static CompletableFuture<String> startLeader(final SingleFlight<String, String> singleFlight,
+            final SingleFlight.Computation<String, Exception> computation) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<String> leader = new CompletableFuture<>();
+
+        new Thread(() -> {
+            try {
+                leader.complete(singleFlight.execute("key", () -> {
+                    started.countDown();
+                    return computation.compute();
+                }));
+            }
+            catch (Exception exception) {
+                leader.completeExceptionally(exception);
+            }
+        }).start();
+
+        Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+        return leader;
+    }
+
+    /**
+     * Waits until the follower is blocked, i.e. waits for the computation in flight.
+     */
+    private static void awaitWaiting(final AtomicReference<Thread> follower) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+
+        while (follower.get() == null || follower.get().getState() != Thread.State.WAITING) {
+            Assert.assertTrue("The follower does not wait for the leader.", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package io.jenkins.plugins.monitoring;
+
+import hudson.model.Run;
+import io.jenkins.plugins.monitoring.util.SnapshotUtils;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+import org.jenkinsci.plugins.workflow.multibranch.WorkflowMultiBranchProject;
+import org.junit.*;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.TestExtension;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+
+/**
+ * Tests the snapshots of the portlets of a completed pull request build created by {@link SnapshotUtils}.
+ *
+ * @author Simon Symhoven
+ */
+@SuppressWarnings("checkstyle:IllegalCatch")
+public class SnapshotUtilsTest {
+    private static final String CACHEABLE = "snapshot-cacheable-portlet";
+    private static final String USER_SPECIFIC = "snapshot-user-specific-portlet";
+
+    /**
+     * JUnit rule to allow test cases to fire up a Jenkins instance.
+     */
+    @Rule
+    public final JenkinsRule jenkinsRule = new JenkinsRule();
+
+    /**
+     * JUnit rule to create multibranch projects based on a mock repository.
+     */
+    @Rule
+    public final MultiBranchProjectFixture fixture = new MultiBranchProjectFixture(jenkinsRule);
+
+    /**
+     * Test if snapshots are only created for cacheable portlets, since the snapshots are created as system and
+     * shown to all users.
+     */
+    @Test
+    public void shouldOnlyCreateSnapshotsOfCacheablePortlets() {
+
+        try {
+            WorkflowMultiBranchProject project = fixture.createProjectWithPullRequests("Jenkinsfile.emptyStage", 1);
+            fixture.index(project);
+
+            WorkflowRun build = Objects.requireNonNull(project.getItems().iterator().next().getLastBuild());
+            SnapshotUtils.createSnapshots(build);
+
+            Assert.assertEquals("snapshot of " + CACHEABLE, MonitoringSnapshotAction.getSnapshot(build, CACHEABLE));
+            Assert.assertNull(MonitoringSnapshotAction.getSnapshot(build, USER_SPECIFIC));
+        }
+        catch (Exception e) {
+            throw new AssertionError(e);
+        }
+
+    }
+
+    /**
+     * A {@link MonitorPortletFactory} with a cacheable and a user specific portlet, that both provide a snapshot.
+     */
+    @TestExtension
+    public static class SnapshotPortletFactory extends MonitorPortletFactory {
+        @Override
+        public Collection<MonitorPortlet> getPortlets(final Run<?, ?> build) {
+            return Arrays.asList(new SnapshotPortlet(CACHEABLE, true), new SnapshotPortlet(USER_SPECIFIC, false));
+        }
+
+        @Override
+        public String getDisplayName() {
+            return "Snapshots";
+        }
+    }
+
+    /**
+     * A {@link MonitorPortlet}, whose snapshot is its id.
+     */
+    private static class SnapshotPortlet extends MonitorPortlet {
+        private final String id;
+        private final boolean cacheable;
+
+        SnapshotPortlet(final String id, final boolean cacheable) {
+            super();
+            this.id = id;
+            this.cacheable = cacheable;
+        }
+
+        @Override
+        public String getTitle() {
+            return id;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public int getPreferredWidth() {
+            return 300;
+        }
+
+        @Override
+        public int getPreferredHeight() {
+            return 200;
+        }
+
+        @Override
+        public boolean isCacheable() {
+            return cacheable;
+        }
+
+        @Override
+        public Object createSnapshot() {
+            return "snapshot of " + id;
+        }
+    }
+}
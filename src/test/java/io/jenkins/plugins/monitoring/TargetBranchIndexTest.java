@@ -0,0 +1,138 @@
+package io.jenkins.plugins.monitoring;
+
+import hudson.model.Run;
+import io.jenkins.plugins.monitoring.util.PullRequestUtils;
+import io.jenkins.plugins.monitoring.util.ReferenceUtils;
+import io.jenkins.plugins.monitoring.util.TargetBranchIndex;
+import jenkins.scm.impl.mock.MockSCMDiscoverBranches;
+import jenkins.scm.impl.mock.MockSCMDiscoverChangeRequests;
+import org.jenkinsci.plugins.workflow.cps.CpsFlowDefinition;
+import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+import org.jenkinsci.plugins.workflow.multibranch.WorkflowMultiBranchProject;
+import org.junit.*;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Tests the lookup of reference builds of pull requests via the {@link TargetBranchIndex}.
+ *
+ * @author Simon Symhoven
+ */
+@SuppressWarnings("checkstyle:IllegalCatch")
+public class TargetBranchIndexTest {
+
+    /**
+     * JUnit rule to allow test cases to fire up a Jenkins instance.
+     */
+    @Rule
+    public final JenkinsRule jenkinsRule = new JenkinsRule();
+
+    /**
+     * JUnit rule to create multibranch projects based on a mock repository.
+     */
+    @Rule
+    public final MultiBranchProjectFixture fixture = new MultiBranchProjectFixture(jenkinsRule);
+
+    /**
+     * Test if the build of the target branch for the target revision is used as reference build, if no reference
+     * build has been discovered for the pull request.
+     */
+    @Test
+    public void shouldUseBuildOfTargetRevisionWithoutDiscoveredReference() {
+
+        try {
+            WorkflowMultiBranchProject project = createRepositoryWithPr("Jenkinsfile.emptyStage");
+
+            Run<?, ?> masterBuild = Objects.requireNonNull(getJob(project, false).getLastBuild());
+            Run<?, ?> pullRequestBuild = Objects.requireNonNull(getJob(project, true).getLastBuild());
+
+            Assert.assertEquals(Optional.of(masterBuild), TargetBranchIndex.findReferenceBuild(pullRequestBuild));
+            Assert.assertEquals(Optional.of(masterBuild), ReferenceUtils.getReferenceBuild(pullRequestBuild));
+        }
+        catch (Exception e) {
+            throw new AssertionError(e);
+        }
+
+    }
+
+    /**
+     * Test if a reference build, that has been discovered with the settings of the job, wins over the build
+     * of the target branch in the {@link TargetBranchIndex}.
+     */
+    @Test
+    public void shouldPreferDiscoveredReferenceBuild() {
+
+        try {
+            WorkflowJob reference = jenkinsRule.createProject(WorkflowJob.class, "reference");
+            reference.setDefinition(new CpsFlowDefinition("echo 'reference'", true));
+            Run<?, ?> referenceBuild = jenkinsRule.buildAndAssertSuccess(reference);
+
+            WorkflowMultiBranchProject project = createRepositoryWithPr("Jenkinsfile.referenceJob");
+
+            Run<?, ?> masterBuild = Objects.requireNonNull(getJob(project, false).getLastBuild());
+            Run<?, ?> pullRequestBuild = Objects.requireNonNull(getJob(project, true).getLastBuild());
+
+            Assert.assertEquals(Optional.of(masterBuild), TargetBranchIndex.findReferenceBuild(pullRequestBuild));
+            Assert.assertEquals(Optional.of(referenceBuild), ReferenceUtils.getReferenceBuild(pullRequestBuild));
+        }
+        catch (Exception e) {
+            throw new AssertionError(e);
+        }
+
+    }
+
+    /**
+     * Test if a missing reference build is not searched again, until the target branch has been built.
+     */
+    @Test
+    public void shouldFindReferenceBuildOnceTargetBranchHasBeenBuilt() {
+
+        try {
+            WorkflowMultiBranchProject project = createRepositoryWithPr("Jenkinsfile.emptyStage");
+
+            WorkflowJob master = getJob(project, false);
+            Run<?, ?> pullRequestBuild = Objects.requireNonNull(getJob(project, true).getLastBuild());
+            pullRequestBuild.removeActions(MonitoringReferenceAction.class);
+            Objects.requireNonNull(master.getLastBuild()).delete();
+
+            Assert.assertEquals(Optional.empty(), ReferenceUtils.getReferenceBuild(pullRequestBuild));
+
+            Run<?, ?> masterBuild = jenkinsRule.buildAndAssertSuccess(master);
+            Assert.assertEquals(Optional.of(masterBuild), ReferenceUtils.getReferenceBuild(pullRequestBuild));
+        }
+        catch (Exception e) {
+            throw new AssertionError(e);
+        }
+
+    }
+
+    private WorkflowJob getJob(final WorkflowMultiBranchProject project, final boolean pullRequest) {
+        return project.getItems().stream()
+                .filter(job -> PullRequestUtils.isPullRequest(job) == pullRequest)
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("Job not found"));
+    }
+
+    /**
+     * Creates an {@link WorkflowMultiBranchProject}, builds the master branch and then a pull request with the
+     * given Jenkinsfile, that targets the built revision of the master branch.
+     *
+     * @param jenkinsfile
+     *              the name of the Jenkinsfile of the pull request.
+     *
+     * @return
+     *              the generated {@link WorkflowMultiBranchProject}.
+     */
+    private WorkflowMultiBranchProject createRepositoryWithPr(final String jenkinsfile) throws Exception {
+        WorkflowMultiBranchProject project = fixture.createProject("Jenkinsfile.emptyStage",
+                new MockSCMDiscoverBranches(), new MockSCMDiscoverChangeRequests());
+        fixture.index(project);
+
+        fixture.openPullRequest(jenkinsfile);
+        fixture.index(project);
+
+        return project;
+    }
+}